@@ -0,0 +1,52 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+
+/**
+ * 벤치마크용 애플리케이션 기동 (인메모리 H2)
+ * - start: 웹 서버 없이 Repository 만 사용
+ * - startWeb: 임의 포트로 웹 서버까지 기동 (local.server.port)
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... extraArgs) {
+        return run(WebApplicationType.NONE, database, extraArgs);
+    }
+
+    static ConfigurableApplicationContext startWeb(String database, String... extraArgs) {
+        String[] webArgs = new String[extraArgs.length + 1];
+        webArgs[0] = "--server.port=0";
+        System.arraycopy(extraArgs, 0, webArgs, 1, extraArgs.length);
+        return run(WebApplicationType.SERVLET, database, webArgs);
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType webApplicationType,
+                                                      String database, String... extraArgs) {
+        String[] args = {
+                "--spring.profiles.active=bench",
+                "--spring.datasource.hikari.jdbc-url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.hikari.username=sa",
+                "--spring.datasource.hikari.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.org.hibernate.sql=warn",
+                "--decorator.datasource.p6spy.enable-logging=false",
+                // 쿼리 자체의 비용을 측정하기 위해 Count/검색 결과 캐시는 끈다.
+                "--member.count-cache.enabled=false",
+                "--member.result-cache.enabled=false"
+        };
+        String[] allArgs = new String[args.length + extraArgs.length];
+        System.arraycopy(args, 0, allArgs, 0, args.length);
+        System.arraycopy(extraArgs, 0, allArgs, args.length, extraArgs.length);
+
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(webApplicationType)
+                .run(allArgs);
+    }
+}
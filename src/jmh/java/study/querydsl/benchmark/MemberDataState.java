@@ -0,0 +1,50 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.repository.support.TeamDictionary;
+
+/**
+ * 벤치마크용 Spring 컨텍스트 + 인메모리 H2
+ * - members 건수 별로 컨텍스트를 새로 띄우고 데이터를 채운다.
+ * - 팀은 TEAMS 개, 나이는 0 ~ 99 로 고르게 분포한다. (팀과 나이는 서로 독립)
+ */
+@State(Scope.Benchmark)
+public class MemberDataState {
+    public static final int TEAMS = 100;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int members;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("bench" + members);
+        seed(context.getBean(JdbcTemplate.class), members);
+        context.getBean(TeamDictionary.class).refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate, int members) {
+        jdbcTemplate.update("insert into team (team_id, name) " +
+                "select x, concat('team', x) from system_range(1, ?)", TEAMS);
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id) " +
+                "select x + ?, concat('member', x), mod(x / ?, 100), mod(x, ?) + 1 from system_range(1, ?)",
+                TEAMS, TEAMS, TEAMS, members);
+    }
+}
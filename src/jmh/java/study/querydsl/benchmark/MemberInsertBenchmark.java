@@ -0,0 +1,66 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 회원 insert 처리량 (식별자 할당 + JDBC batch)
+ * - 연산 1회 = 한 트랜잭션에서 ROWS 건 persist 후 커밋, 결과는 행 단위로 환산된다.
+ * - 식별자 전략 변경 전/후 비교는 이전 커밋에서 같은 벤치마크를 실행하여 비교한다.
+ */
+@State(Scope.Benchmark)
+public class MemberInsertBenchmark {
+    private static final int ROWS = 1000;
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory emf;
+    Long teamId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("insert");
+        emf = context.getBean(EntityManagerFactory.class);
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        TeamEntity team = new TeamEntity("teamA");
+        em.persist(team);
+        em.getTransaction().commit();
+        em.close();
+        teamId = team.getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void persistMembers() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            TeamEntity team = em.getReference(TeamEntity.class, teamId);
+            for (int i = 0; i < ROWS; i++) {
+                MemberEntity member = new MemberEntity("member" + i, i % 100);
+                member.setTeam(team);
+                em.persist(member);
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
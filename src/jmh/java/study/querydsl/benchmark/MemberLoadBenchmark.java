@@ -0,0 +1,85 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.repository.support.TeamDictionary;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 플랫폼 스레드(Tomcat 스레드 풀) vs 가상 스레드 + 커넥션 허가 제한 부하 테스트
+ * - ./gradlew jmh -PjmhIncludes=MemberLoadBenchmark -PvirtualThreads  (virtualThreads=true 는 JDK 21 런타임 필요)
+ * - 동시 요청 512 개가 느린 페이징 검색(/v2/members 깊은 페이지 + count)을 호출한다.
+ * - Tomcat 스레드는 64 개, 커넥션 풀은 16 개로 제한하여 스레드 풀이 먼저 가득 차는 상황을 만든다.
+ * - Throughput 과 SampleTime(p99) 를 비교한다.
+ */
+@State(Scope.Benchmark)
+@Threads(512)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberLoadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"1000000"})
+    public int members;
+
+    ConfigurableApplicationContext context;
+    HttpClient httpClient;
+    URI searchUri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.startWeb("load" + members + virtualThreads,
+                "--member.virtual-threads.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=64",
+                "--server.tomcat.max-connections=10000",
+                "--server.tomcat.accept-count=1000",
+                "--spring.datasource.hikari.maximum-pool-size=16",
+                "--spring.datasource.hikari.connection-timeout=60000");
+        MemberDataState.seed(context.getBean(JdbcTemplate.class), members);
+        context.getBean(TeamDictionary.class).refresh();
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        searchUri = URI.create("http://localhost:" + port + "/v2/members?teamName=team7&ageGoe=20&ageLoe=40&page=50&size=20");
+        httpClient = HttpClient.newBuilder()
+                               .connectTimeout(Duration.ofSeconds(10))
+                               .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int search() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(searchUri)
+                                         .timeout(Duration.ofSeconds(120))
+                                         .GET()
+                                         .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,80 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+
+import java.util.List;
+
+/**
+ * Repository 검색/페이징 경로 벤치마크
+ * - ./gradlew jmh -PjmhIncludes=MemberRepositoryBenchmark
+ * - search(JPQL 템플릿) vs searchByBuilder(Querydsl) 비교로 템플릿 캐시의 효과도 확인할 수 있다.
+ */
+@State(Scope.Benchmark)
+public class MemberRepositoryBenchmark {
+    private static final PageRequest DEEP_PAGE = PageRequest.of(100, 20);
+
+    MemberJpaRepository memberJpaRepository;
+    MemberRepository memberRepository;
+    MemberTestRepository memberTestRepository;
+
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp(MemberDataState data) {
+        memberJpaRepository = data.getBean(MemberJpaRepository.class);
+        memberRepository = data.getBean(MemberRepository.class);
+        memberTestRepository = data.getBean(MemberTestRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team7");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(25);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> search() {
+        return memberJpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, DEEP_PAGE);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, DEEP_PAGE);
+    }
+
+    @Benchmark
+    public Page<MemberEntity> applyPagination() {
+        return memberTestRepository.applyPagination(condition, DEEP_PAGE);
+    }
+
+    @Benchmark
+    public Page<MemberEntity> applyPaginationV2() {
+        return memberTestRepository.applyPaginationV2(condition, DEEP_PAGE);
+    }
+
+    @Benchmark
+    public Page<MemberEntity> applyPaginationV3() {
+        return memberTestRepository.applyPaginationV3(condition, DEEP_PAGE);
+    }
+}
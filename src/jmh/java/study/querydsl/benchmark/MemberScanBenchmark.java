@@ -0,0 +1,58 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberColumns;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+
+/**
+ * 분석용 전체 스캔: 관리 엔티티 조회(findAll) vs 컬럼 배열 스캔(scanColumns)
+ * - ./gradlew jmh -PjmhIncludes=MemberScanBenchmark (gc 프로파일러의 gc.alloc.rate.norm 으로 힙 사용량 비교)
+ */
+@State(Scope.Benchmark)
+public class MemberScanBenchmark {
+    private static final int FETCH_SIZE = 1000;
+
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate readOnlyTransaction;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp(MemberDataState data) {
+        memberJpaRepository = data.getBean(MemberJpaRepository.class);
+        readOnlyTransaction = new TransactionTemplate(data.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        condition = new MemberSearchCondition();
+    }
+
+    @Benchmark
+    public int findAll() {
+        // 영속성 컨텍스트가 스캔 동안 유지되도록 하나의 트랜잭션에서 조회
+        return readOnlyTransaction.execute(status -> {
+            List<MemberEntity> members = memberJpaRepository.findAll();
+            long sum = 0;
+            for (MemberEntity member : members) {
+                sum += member.getAge() + member.getTeam().getId();
+            }
+            return members.size() + (int) (sum & 1);
+        });
+    }
+
+    @Benchmark
+    public int scanColumns() {
+        MemberColumns columns = memberJpaRepository.scanColumns(condition, FETCH_SIZE);
+        long sum = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            sum += columns.age(row) + columns.teamId(row);
+        }
+        return columns.size() + (int) (sum & 1);
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+
+/**
+ * team join vs TeamDictionary(join 제거) 비교
+ * - ./gradlew jmh -PjmhIncludes=TeamJoinBenchmark
+ * - searchByBuilder: member left join team, team.name 조건
+ * - search: member 단독 조회, member.team_id 조건 + 조회 후 팀 이름 채우기
+ */
+@State(Scope.Benchmark)
+public class TeamJoinBenchmark {
+
+    @Param({"true", "false"})
+    public boolean teamCondition;
+
+    MemberJpaRepository memberJpaRepository;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp(MemberDataState data) {
+        memberJpaRepository = data.getBean(MemberJpaRepository.class);
+
+        condition = new MemberSearchCondition();
+        if (teamCondition) {
+            condition.setTeamName("team7");
+        }
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(20);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> join() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> dictionary() {
+        return memberJpaRepository.search(condition);
+    }
+}
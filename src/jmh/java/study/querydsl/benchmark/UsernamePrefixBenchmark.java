@@ -0,0 +1,63 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static study.querydsl.entity.QMemberEntity.memberEntity;
+
+/**
+ * username 앞부분 일치 검색: like 'abc%' vs username 인덱스 범위 조건
+ * - ./gradlew jmh -PjmhIncludes=UsernamePrefixBenchmark
+ * - username 은 member1 ~ memberN 이므로 prefix 가 길수록 결과가 적다. (member12345 -> 1M 에서 11건)
+ * - like: Querydsl startsWith (like ?1 escape '!'), 바인딩 파라미터라 인덱스를 쓰지 못하면 전체 스캔
+ * - range: usernamePrefix 조건 (username >= ?1 and username < ?2)
+ */
+@State(Scope.Benchmark)
+public class UsernamePrefixBenchmark {
+
+    @Param({"member12345", "member1234"})
+    public String prefix;
+
+    MemberJpaRepository memberJpaRepository;
+    JPAQueryFactory queryFactory;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp(MemberDataState data) {
+        memberJpaRepository = data.getBean(MemberJpaRepository.class);
+        queryFactory = new JPAQueryFactory(data.getBean(EntityManager.class));
+
+        condition = new MemberSearchCondition();
+        condition.setUsernamePrefix(prefix);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> like() {
+        return queryFactory.select(new QMemberTeamDto(
+                                   memberEntity.id,
+                                   memberEntity.username,
+                                   memberEntity.age,
+                                   memberEntity.team.id
+                           ))
+                           .from(memberEntity)
+                           .where(memberEntity.username.startsWith(prefix))
+                           .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> range() {
+        return memberJpaRepository.search(condition);
+    }
+}
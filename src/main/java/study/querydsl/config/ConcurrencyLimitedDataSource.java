@@ -0,0 +1,208 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.pool.HikariPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.ref.Cleaner;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 커넥션 풀 앞에서 동시에 커넥션을 쓰는 스레드 수를 공정한(FIFO) Semaphore 로 제한한다.
+ * - 가상 스레드 수천 개가 풀 내부(synchronized, 대기 큐)에서 캐리어 스레드를 붙잡지 않고
+ *   Semaphore 에서 값싸게 순서대로 기다리게 하기 위함
+ * - 허가(permit) 는 getConnection 시 얻고 Connection.close 시 반납한다.
+ *   close 하지 않은 커넥션이 GC 되면 Cleaner 가 커넥션을 닫고 허가를 반납한다. (경고 로그)
+ * - acquireTimeout 은 허가 대기와 풀 대기를 합친 전체 시간이다. 허가를 기다린 만큼 Hikari 풀 대기 시간을 줄인다.
+ *   시간 안에 커넥션을 얻지 못하면 풀의 connectionTimeout 과 같은 종류의 예외를 던진다.
+ */
+@Slf4j
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource implements AutoCloseable {
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public ConcurrencyLimitedDataSource(DataSource targetDataSource, int permits, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long deadline = System.nanoTime() + acquireTimeoutNanos;
+        acquire();
+        return limited(() -> targetConnection(deadline));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return limited(() -> super.getConnection(username, password));
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * 빈 소멸 시 감싸고 있는 풀을 닫는다. (HikariDataSource.close)
+     */
+    @Override
+    public void close() throws Exception {
+        DataSource target = getTargetDataSource();
+        if (target instanceof AutoCloseable) {
+            ((AutoCloseable) target).close();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Connection permit not available, request timed out after "
+                        + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + "ms (waiting: " + permits.getQueueLength() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection permit", e);
+        }
+    }
+
+    /**
+     * 시작된 Hikari 풀이면 남은 시간만큼만 풀에서 기다린다. (HikariPool.getConnection(hardTimeout))
+     * 풀이 아직 시작되지 않았거나 다른 DataSource 면 풀 자체의 대기 시간을 따른다.
+     */
+    private Connection targetConnection(long deadline) throws SQLException {
+        DataSource target = obtainTargetDataSource();
+        if (target instanceof HikariDataSource) {
+            HikariPoolMXBean pool = ((HikariDataSource) target).getHikariPoolMXBean();
+            if (pool instanceof HikariPool) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    throw new SQLTransientConnectionException("Connection not available, request timed out after "
+                            + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + "ms waiting for a permit");
+                }
+                return ((HikariPool) pool).getConnection(remainingMillis);
+            }
+        }
+        return target.getConnection();
+    }
+
+    private Connection limited(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        Permit permit = new Permit(permits);
+        Connection limited = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (method.getParameterCount() == 0) {
+                                try {
+                                    connection.close();
+                                } finally {
+                                    permit.release();
+                                }
+                                return null;
+                            }
+                            break;
+                        // 프록시 자체의 식별성 (대상 커넥션으로 넘기면 서로 다른 프록시가 같은 것으로 취급된다)
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "ConcurrencyLimited[" + connection + "]";
+                        case "unwrap":
+                            if (((Class<?>) args[0]).isInstance(proxy)) {
+                                return proxy;
+                            }
+                            break;
+                        case "isWrapperFor":
+                            if (((Class<?>) args[0]).isInstance(proxy)) {
+                                return true;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        // 정리 동작은 프록시를 참조하면 안 된다. (참조하면 프록시가 GC 되지 않는다)
+        CLEANER.register(limited, new LeakedConnectionCleanup(connection, permit));
+        return limited;
+    }
+
+    private static final class Permit {
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        private boolean isReleased() {
+            return released.get();
+        }
+    }
+
+    private static final class LeakedConnectionCleanup implements Runnable {
+        private final Connection connection;
+        private final Permit permit;
+
+        private LeakedConnectionCleanup(Connection connection, Permit permit) {
+            this.connection = connection;
+            this.permit = permit;
+        }
+
+        @Override
+        public void run() {
+            if (permit.isReleased()) {
+                return;
+            }
+            log.warn("Connection was not closed before being garbage collected, closing it and releasing its permit");
+            try {
+                connection.close();
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Failed to close leaked connection", e);
+            } finally {
+                permit.release();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
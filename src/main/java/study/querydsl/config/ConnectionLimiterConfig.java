@@ -0,0 +1,55 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Hikari 풀마다 ConcurrencyLimitedDataSource 를 씌운다. (member.connection-limiter.enabled)
+ * - 허가 수는 member.connection-limiter.permits, 0 이면 풀의 maximumPoolSize
+ * - 허가 대기 + 풀 대기를 합쳐 풀의 connectionTimeout 안에 끝난다.
+ * - p6spy 등 다른 DataSource 데코레이터보다 먼저 적용되어 풀 바로 앞에 위치한다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "member.connection-limiter.enabled", havingValue = "true")
+public class ConnectionLimiterConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimiterPostProcessor(Environment environment) {
+        int configuredPermits = environment.getProperty("member.connection-limiter.permits", Integer.class, 0);
+        return new LimiterPostProcessor(configuredPermits);
+    }
+
+    private static final class LimiterPostProcessor implements BeanPostProcessor, PriorityOrdered {
+        private final int configuredPermits;
+
+        private LimiterPostProcessor(int configuredPermits) {
+            this.configuredPermits = configuredPermits;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource)) {
+                return bean;
+            }
+            HikariDataSource pool = (HikariDataSource) bean;
+            int permits = configuredPermits > 0 ? configuredPermits : pool.getMaximumPoolSize();
+            log.info("Limiting concurrent connections of '{}' to {} permits", beanName, permits);
+            return new ConcurrencyLimitedDataSource(pool, permits, Duration.ofMillis(pool.getConnectionTimeout()));
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read Replica 라우팅 (opt-in: member.replica.enabled)
+ * - primary: spring.datasource.hikari, replica: member.replica.hikari
+ * - @Transactional(readOnly = true) 검색 경로는 replica, 나머지는 primary 로 라우팅한다.
+ * - p6spy 가 각 풀과 라우팅 DataSource 를 중복으로 감싸지 않도록 decorator.datasource.exclude-beans 에 풀 빈을 제외한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @ConfigurationProperties("member.replica.hikari")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routingDataSource =
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 읽기 전용 트랜잭션이면 replica, 그 외(쓰기 트랜잭션, 트랜잭션 없음)는 primary 커넥션을 사용한다.
+ * - 트랜잭션 시작 시점에는 readOnly 여부가 아직 동기화되지 않았으므로
+ *   반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 SQL 실행 시점에 커넥션을 얻어야 한다.
+ * - 라우팅 결과는 datasource.routing{target=primary|replica} 로 기록한다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final Counter primaryRouted;
+    private final Counter replicaRouted;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryRouted = Counter.builder("datasource.routing").tag("target", PRIMARY).register(meterRegistry);
+        this.replicaRouted = Counter.builder("datasource.routing").tag("target", REPLICA).register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            replicaRouted.increment();
+            return REPLICA;
+        }
+        primaryRouted.increment();
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tomcat 요청 처리를 가상 스레드에서 실행한다. (member.virtual-threads.enabled, JDK 21 이상 런타임 필요)
+ * - 소스 레벨(Java 11)은 그대로 두고 Executors.newVirtualThreadPerTaskExecutor 를 리플렉션으로 얻는다.
+ * - 요청 수만큼 가상 스레드가 생기므로 DB 동시 접근은 ConcurrencyLimitedDataSource 로 제한한다.
+ *   (member.connection-limiter.enabled 기본값이 이 설정을 따른다)
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "member.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        log.info("Serving requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("member.virtual-threads.enabled requires a JDK 21+ runtime (current: "
+                    + System.getProperty("java.version") + ")", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+}
@@ -1,44 +1,29 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.MemberEntity;
-import study.querydsl.entity.TeamEntity;
+import study.querydsl.repository.support.MemberDataGenerator;
+import study.querydsl.repository.support.MemberDataSpec;
 
 import javax.annotation.PostConstruct;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 
+/**
+ * local 프로파일 기동 시 테스트 데이터 생성
+ * - 건수/분포/스레드 수 등은 member.init.* 설정 (MemberDataSpec 참고)
+ * - JDBC 로 직접 저장하므로 Hibernate 가 스키마를 만든(ddl-auto) 이후에 실행되어야 한다.
+ */
 @Profile("local")
+@DependsOn("entityManagerFactory")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
-    private final InitMemberService initMemberService;
+    private final MemberDataGenerator memberDataGenerator;
+    private final MemberDataSpec memberDataSpec;
 
     @PostConstruct
     public void init() {
-        initMemberService.init();
-    }
-
-    @Component
-    static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
-
-        @Transactional
-        public void init() {
-            TeamEntity teamA = new TeamEntity("teamA");
-            TeamEntity teamB = new TeamEntity("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 200; i++) {
-                TeamEntity selectedTeam = (i % 2 == 0) ? teamA : teamB;
-                MemberEntity memberEntity = new MemberEntity("member" + i, i, selectedTeam);
-                em.persist(memberEntity);
-            }
-        }
+        memberDataGenerator.generate(memberDataSpec);
     }
 }
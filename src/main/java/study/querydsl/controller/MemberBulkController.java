@@ -0,0 +1,81 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.BulkIngestResult;
+import study.querydsl.dto.MemberIngestRow;
+import study.querydsl.repository.MemberBulkRepository;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberBulkController {
+    private final MemberBulkRepository memberBulkRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${member.bulk.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * NDJSON(한 줄에 회원 한 건) 요청 본문을 스트리밍으로 읽어 batch-size 건씩 저장한다.
+     * - 요청 전체를 메모리에 올리지 않으므로 업로드 크기와 상관없이 힙 사용량이 일정하다.
+     * - 파싱할 수 없는 줄(null 포함)은 해당 배치의 거부 건수로 집계한다.
+     */
+    @PostMapping(value = "/members/bulk", consumes = "application/x-ndjson")
+    public BulkIngestResult bulkInsert(HttpServletRequest request) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(MemberIngestRow.class);
+        BulkIngestResult result = new BulkIngestResult();
+
+        List<MemberIngestRow> batch = new ArrayList<>(batchSize);
+        int malformed = 0;
+        try (BufferedReader lines = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (!hasText(line)) {
+                    continue;
+                }
+                try {
+                    MemberIngestRow row = reader.readValue(line);
+                    // JSON 리터럴 null 은 행이 아니다.
+                    if (row != null) {
+                        batch.add(row);
+                    } else {
+                        malformed++;
+                    }
+                } catch (JsonProcessingException e) {
+                    malformed++;
+                }
+                if (batch.size() + malformed >= batchSize) {
+                    flush(result, batch, malformed);
+                    batch = new ArrayList<>(batchSize);
+                    malformed = 0;
+                }
+            }
+        }
+        if (!batch.isEmpty() || malformed > 0) {
+            flush(result, batch, malformed);
+        }
+        return result;
+    }
+
+    private void flush(BulkIngestResult result, List<MemberIngestRow> batch, int malformed) {
+        int accepted = batch.isEmpty() ? 0 : memberBulkRepository.insertBatch(batch);
+        int rejected = batch.size() - accepted + malformed;
+        result.add(new BulkIngestResult.BatchResult(result.getBatches().size() + 1, accepted, rejected));
+    }
+}
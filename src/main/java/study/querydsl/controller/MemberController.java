@@ -1,15 +1,34 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.dto.CursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.InvalidCursorRequestException;
+import study.querydsl.repository.support.MemberBatchLoader;
+import study.querydsl.repository.support.SearchResultCache;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -17,19 +36,85 @@ import java.util.List;
 public class MemberController {
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+    private final SearchResultCache searchResultCache;
+    private final SearchETags searchETags;
+    private final MemberBatchLoader memberBatchLoader;
+
+    @Value("${member.export.fetch-size:1000}")
+    private int exportFetchSize;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+        return searchResultCache.list("search", condition, () -> memberJpaRepository.search(condition));
+    }
+
+    /**
+     * 동시에 들어온 식별자 조회는 MemberBatchLoader 가 in 쿼리 한 번으로 묶어서 조회한다.
+     */
+    @GetMapping("/v1/members/{id}")
+    public ResponseEntity<MemberTeamDto> findMemberV1(@PathVariable Long id) {
+        return ResponseEntity.of(memberBatchLoader.findById(id));
+    }
+
+    /**
+     * 검색 결과를 NDJSON(한 줄에 한 건) 으로 스트리밍한다.
+     * - 결과를 List 로 모으지 않기 때문에 전체 테이블을 내보내도 힙 사용량이 늘어나지 않는다.
+     */
+    @GetMapping(value = "/v1/members/export", produces = "application/x-ndjson")
+    public void exportMemberV1(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(MemberTeamDto.class);
+
+        memberJpaRepository.exportTo(condition, exportFetchSize, dto -> writeLine(writer, out, dto));
+        out.flush();
     }
 
+    /**
+     * If-None-Match 가 현재 ETag 와 같으면 검색하지 않고 304 로 응답한다. (v3 동일)
+     */
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        if (searchETags.checkNotModified("v2", request, condition, pageable)) {
+            return null;
+        }
+        return searchResultCache.page("searchPageSimple", condition, pageable,
+                () -> memberRepository.searchPageSimple(condition, pageable));
     }
 
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        if (searchETags.checkNotModified("v3", request, condition, pageable)) {
+            return null;
+        }
+        return searchResultCache.page("searchPageSimple", condition, pageable,
+                () -> memberRepository.searchPageSimple(condition, pageable));
+    }
+
+    /**
+     * Keyset 페이징: 응답의 nextCursor 를 다음 요청의 cursor 로 넘긴다.
+     */
+    @GetMapping("/v4/members")
+    public CursorPage<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        return memberRepository.searchByCursor(condition, cursor, size);
+    }
+
+    @ExceptionHandler(InvalidCursorRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleInvalidCursorRequest(InvalidCursorRequestException e) {
+        return e.getMessage();
+    }
+
+    private static void writeLine(ObjectWriter writer, OutputStream out, MemberTeamDto dto) {
+        try {
+            out.write(writer.writeValueAsBytes(dto));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
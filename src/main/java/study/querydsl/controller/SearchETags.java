@@ -0,0 +1,55 @@
+package study.querydsl.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.MemberDataVersion;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * 회원 검색 Conditional GET (ETag / If-None-Match)
+ * - ETag = 데이터 버전 + 검색 조건/페이지 해시, 검색 쿼리를 실행하기 전에 비교하여 같으면 304 로 응답한다.
+ * - 데이터 버전은 이 인스턴스에서 커밋된 변경만 알기 때문에 다른 인스턴스나 JDBC 로 직접 변경한 데이터는
+ *   max-age 구간이 바뀔 때 ETag 가 달라지는 것으로 반영한다. (최대 max-age 동안 304)
+ * - 응답 결과는 http.conditional.requests{endpoint, outcome=not_modified|modified} 로 기록한다.
+ */
+@Component
+public class SearchETags {
+    private final MemberDataVersion dataVersion;
+    private final MeterRegistry meterRegistry;
+    private final long maxAgeMillis;
+
+    public SearchETags(MemberDataVersion dataVersion, MeterRegistry meterRegistry,
+                       @Value("${member.etag.max-age:30s}") Duration maxAge) {
+        this.dataVersion = dataVersion;
+        this.meterRegistry = meterRegistry;
+        this.maxAgeMillis = maxAge.toMillis();
+    }
+
+    /**
+     * @return true 이면 304 응답이 설정되었으므로 검색하지 않고 바로 반환한다.
+     */
+    public boolean checkNotModified(String endpoint, WebRequest request,
+                                    MemberSearchCondition condition, Pageable pageable) {
+        String etag = etag(condition, pageable);
+        boolean notModified = request.checkNotModified(etag);
+        Counter.builder("http.conditional.requests")
+               .tag("endpoint", endpoint)
+               .tag("outcome", notModified ? "not_modified" : "modified")
+               .register(meterRegistry)
+               .increment();
+        return notModified;
+    }
+
+    private String etag(MemberSearchCondition condition, Pageable pageable) {
+        long bucket = System.currentTimeMillis() / maxAgeMillis;
+        int request = Objects.hash(condition.normalize(), pageable);
+        return "\"" + dataVersion.current() + "-" + Long.toString(bucket, 36) + "-" + Integer.toHexString(request) + "\"";
+    }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.repository.support.SearchPlanInspector;
+import study.querydsl.repository.support.SearchPlanInspector.SearchPlan;
+
+import java.util.List;
+
+/**
+ * 검색 shape 별 실행 계획 진단
+ * - regression 이 true 인 shape 은 조건이 있는데도 member 전체 스캔을 하는 경우
+ */
+@RestController
+@RequiredArgsConstructor
+public class SearchPlanController {
+    private final SearchPlanInspector searchPlanInspector;
+
+    @GetMapping("/diagnostics/search-plans")
+    public List<SearchPlan> searchPlans() {
+        return searchPlanInspector.inspectAll();
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.repository.TeamRepository;
+import study.querydsl.repository.support.TeamStatistics;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+    private final TeamRepository teamRepository;
+    private final TeamStatistics teamStatistics;
+
+    /**
+     * 팀 목록 + 팀별 회원 목록 (팀 페이지 크기와 상관없이 쿼리 2~3개)
+     */
+    @GetMapping("/v1/teams")
+    public Page<TeamMembersDto> searchTeamsV1(Pageable pageable) {
+        return teamRepository.findTeamsWithMembers(pageable);
+    }
+
+    /**
+     * 팀별 나이 통계 (member 테이블 집계 없이 메모리에서 증분으로 유지되는 값)
+     */
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> teamStatsV1() {
+        return teamStatistics.stats();
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량 등록 결과 (배치 별 저장/거부 건수)
+ */
+@Data
+public class BulkIngestResult {
+    private long accepted;
+    private long rejected;
+    private List<BatchResult> batches = new ArrayList<>();
+
+    public void add(BatchResult batch) {
+        batches.add(batch);
+        accepted += batch.getAccepted();
+        rejected += batch.getRejected();
+    }
+
+    @Data
+    public static class BatchResult {
+        private final int batch;
+        private final int accepted;
+        private final int rejected;
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 청크 단위 벌크 수정/삭제 진행 상황
+ * - checkpoint: 마지막으로 커밋된 청크의 최대 member_id, 중단된 작업은 이 값부터 다시 시작한다.
+ */
+@Data
+public class BulkMutationProgress {
+    private final int chunks;
+    private final long affected;
+    private final Long checkpoint;
+    private final long elapsedMillis;
+    private final boolean completed;
+}
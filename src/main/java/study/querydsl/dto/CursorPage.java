@@ -0,0 +1,23 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Keyset(No-Offset) 페이징 결과
+ * - nextCursor 는 클라이언트가 그대로 다음 요청에 넘겨주는 불투명(opaque) 토큰이다.
+ * - 마지막 페이지인 경우 nextCursor 는 null 이다.
+ */
+@Getter
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+}
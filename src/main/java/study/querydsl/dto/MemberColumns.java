@@ -0,0 +1,116 @@
+package study.querydsl.dto;
+
+import java.util.Arrays;
+
+/**
+ * 회원 스캔 결과를 컬럼 별 기본형 배열로 담는다. (행마다 엔티티/DTO 객체를 만들지 않음)
+ * - ids, ages, teamIds: 필요할 때 두 배씩 늘어나는 배열, 0 ~ size() - 1 까지 유효
+ * - teamIds: 팀이 없으면 NO_TEAM (식별자는 1 부터 시작한다)
+ * - username 은 선택 컬럼이다. (withUsernames = false 이면 읽지도 저장하지도 않는다)
+ *   회원 이름은 거의 모두 다른 값이라 사전(dictionary) 인코딩으로 얻는 것이 없으므로 드라이버가 만든 문자열을 그대로 담는다.
+ */
+public class MemberColumns {
+    public static final long NO_TEAM = 0L;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private long[] ids;
+    private int[] ages;
+    private long[] teamIds;
+    private String[] usernames;
+
+    public MemberColumns(boolean withUsernames) {
+        this(INITIAL_CAPACITY, withUsernames);
+    }
+
+    public MemberColumns(int initialCapacity, boolean withUsernames) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.ids = new long[capacity];
+        this.ages = new int[capacity];
+        this.teamIds = new long[capacity];
+        this.usernames = withUsernames ? new String[capacity] : null;
+    }
+
+    /**
+     * @param username withUsernames = false 이면 무시한다.
+     */
+    public void add(long id, String username, int age, long teamId) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = id;
+        ages[size] = age;
+        teamIds[size] = teamId;
+        if (usernames != null) {
+            usernames[size] = username;
+        }
+        size++;
+    }
+
+    public boolean hasUsernames() {
+        return usernames != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int row) {
+        return ids[checkRow(row)];
+    }
+
+    public int age(int row) {
+        return ages[checkRow(row)];
+    }
+
+    public long teamId(int row) {
+        return teamIds[checkRow(row)];
+    }
+
+    public String username(int row) {
+        checkRow(row);
+        if (usernames == null) {
+            throw new IllegalStateException("Usernames were not scanned");
+        }
+        return usernames[row];
+    }
+
+    /**
+     * 내부 배열을 그대로 반환한다. (복사 없음, size() 이후는 의미 없는 값)
+     */
+    public long[] ids() {
+        return ids;
+    }
+
+    public int[] ages() {
+        return ages;
+    }
+
+    public long[] teamIds() {
+        return teamIds;
+    }
+
+    /**
+     * username 을 읽지 않았으면 null
+     */
+    public String[] usernames() {
+        return usernames;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        teamIds = Arrays.copyOf(teamIds, capacity);
+        if (usernames != null) {
+            usernames = Arrays.copyOf(usernames, capacity);
+        }
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class MemberIngestRow {
+    private String username;
+    private Integer age;
+    private String teamName;
+
+    public MemberIngestRow(String username, Integer age, String teamName) {
+        this.username = username;
+        this.age = age;
+        this.teamName = teamName;
+    }
+}
@@ -2,12 +2,30 @@ package study.querydsl.dto;
 
 import lombok.Data;
 
+import static org.springframework.util.StringUtils.hasText;
+
 @Data
 public class MemberSearchCondition {
-    // 회원명, 팀명, 나이(ageGoe, ageLoe)
+    // 회원명, 회원명 앞부분, 팀명, 나이(ageGoe, ageLoe)
 
     private String username;
+    private String usernamePrefix;
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+
+    /**
+     * 검색 조건과 동일한 의미를 가지는 정규화된 사본을 반환한다.
+     * - 빈 문자열은 조건이 없는 것(null)과 동일하게 취급한다. (usernameEq, teamNameEq 와 동일한 규칙)
+     * - 캐시 키 등으로 사용할 때 원본 객체가 변경되어도 영향을 받지 않는다.
+     */
+    public MemberSearchCondition normalize() {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUsername(hasText(username) ? username : null);
+        normalized.setUsernamePrefix(hasText(usernamePrefix) ? usernamePrefix : null);
+        normalized.setTeamName(hasText(teamName) ? teamName : null);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        return normalized;
+    }
 }
@@ -19,4 +19,12 @@ public class MemberTeamDto {
         this.teamId = teamId;
         this.teamName = teamName;
     }
+
+    /**
+     * team join 없이 member.team_id 만 조회하는 경우 (teamName 은 TeamDictionary 로 채운다)
+     */
+    @QueryProjection
+    public MemberTeamDto(Long memberId, String username, int age, Long teamId) {
+        this(memberId, username, age, teamId, null);
+    }
 }
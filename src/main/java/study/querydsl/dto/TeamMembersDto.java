@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class TeamMembersDto {
+    private Long teamId;
+    private String name;
+    private List<MemberDto> members = new ArrayList<>();
+
+    @QueryProjection
+    public TeamMembersDto(Long teamId, String name) {
+        this.teamId = teamId;
+        this.name = name;
+    }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TeamStatsDto {
+    private String teamName;
+    private long count;
+    private long sum;
+    private Double avg;
+    private Integer max;
+    private Integer min;
+
+    public TeamStatsDto(String teamName, long count, long sum, Integer max, Integer min) {
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = (count == 0) ? null : (double) sum / count;
+        this.max = max;
+        this.min = min;
+    }
+}
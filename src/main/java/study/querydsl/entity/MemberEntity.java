@@ -8,11 +8,23 @@ import static javax.persistence.FetchType.*;
 
 @Entity
 @Getter @Setter
-@Table(name = "member")
+@Table(name = "member", indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        // teamName 조건(team_id) + 나이 범위 조건을 함께 처리, team_id 단독 조건/FK 조회도 선두 컬럼으로 사용
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_age", columnList = "age")
+})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class MemberEntity {
-    @Id @GeneratedValue
+    /**
+     * pooled 시퀀스: DB 시퀀스를 allocationSize 만큼 증가시켜 식별자 블록을 예약하고,
+     * 블록 안의 식별자는 DB 를 거치지 않고 메모리에서 할당한다. (여러 인스턴스에서도 블록이 겹치지 않음)
+     * - TeamEntity 도 같은 방식이며, JDBC 로 직접 insert 할 때의 블록 예약은 IdBlockAllocator 참고
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
     private String username;
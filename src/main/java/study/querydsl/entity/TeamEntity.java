@@ -1,18 +1,29 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * 거의 변경되지 않는 데이터이므로 2차 캐시(team 영역) 사용
+ * - 크기/TTL 설정은 resources/application.conf
+ */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 @Getter @Setter
-@Table(name = "team")
+@Table(name = "team", indexes = @Index(name = "idx_team_name", columnList = "name"))
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class TeamEntity {
-    @Id @GeneratedValue
+    // pooled 시퀀스 (MemberEntity.id 참고)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
     private String name;
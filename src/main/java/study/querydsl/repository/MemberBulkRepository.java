@@ -0,0 +1,247 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import study.querydsl.dto.BulkMutationProgress;
+import study.querydsl.dto.MemberIngestRow;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+import study.querydsl.repository.support.MemberDataChangedEvent;
+import study.querydsl.repository.support.TeamStatistics;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMemberEntity.memberEntity;
+import static study.querydsl.entity.QTeamEntity.teamEntity;
+
+/**
+ * 회원 대량 등록
+ * - 배치 하나가 하나의 트랜잭션이며, 배치의 팀 이름은 한 번의 IN 쿼리로 TeamEntity 로 변환한다.
+ * - hibernate.jdbc.batch_size / order_inserts 설정에 따라 insert 가 JDBC batch 로 묶이고,
+ *   배치가 끝나면 flush/clear 하여 영속성 컨텍스트가 커지지 않는다.
+ *
+ * 회원 대량 수정/삭제
+ * - 테이블 전체를 한 번의 update/delete 로 처리하면 끝날 때까지 락을 잡고 있으므로,
+ *   조건에 맞는 회원을 member_id 순서로 chunk-size 건씩 끊어 청크마다 별도 트랜잭션으로 실행한다.
+ * - rows-per-second 로 처리량을 제한하고, 청크가 커밋될 때마다 진행 상황(checkpoint)을 알린다.
+ */
+@Slf4j
+@Repository
+public class MemberBulkRepository {
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TeamStatistics teamStatistics;
+    private final int chunkSize;
+    private final int rowsPerSecond;
+
+    public MemberBulkRepository(EntityManager em,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                TeamStatistics teamStatistics,
+                                @Value("${member.bulk.chunk-size:1000}") int chunkSize,
+                                @Value("${member.bulk.rows-per-second:0}") int rowsPerSecond) {
+        Assert.isTrue(chunkSize > 0, "Chunk size must be greater than zero!");
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.teamStatistics = teamStatistics;
+        this.chunkSize = chunkSize;
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * @return 저장된 건수 (null 이거나, username 이 없거나, 나이가 음수이거나, 존재하지 않는 팀인 행은 거부)
+     */
+    @Transactional
+    public int insertBatch(List<MemberIngestRow> rows) {
+        Map<String, TeamEntity> teams = findTeams(rows);
+
+        int accepted = 0;
+        for (MemberIngestRow row : rows) {
+            if (row == null || !hasText(row.getUsername()) || row.getAge() == null || row.getAge() < 0) {
+                continue;
+            }
+            TeamEntity team = null;
+            if (hasText(row.getTeamName())) {
+                team = teams.get(row.getTeamName());
+                if (team == null) {
+                    continue;
+                }
+            }
+            MemberEntity member = new MemberEntity(row.getUsername(), row.getAge());
+            // changeTeam 은 team.members 컬렉션을 건드리므로 연관관계 주인만 설정
+            member.setTeam(team);
+            em.persist(member);
+            accepted++;
+        }
+
+        em.flush();
+        em.clear();
+        return accepted;
+    }
+
+    /**
+     * 조건에 맞는 회원을 청크 단위로 수정한다.
+     * ex) updateInChunks(memberEntity.age.lt(28), update -> update.set(memberEntity.username, "비회원"), null, progress -> ...)
+     *
+     * @param checkpoint 이전 실행의 checkpoint (처음부터 실행하면 null)
+     * @param listener   청크가 커밋될 때마다 호출
+     */
+    public BulkMutationProgress updateInChunks(Predicate where, Consumer<JPAUpdateClause> assignments,
+                                               Long checkpoint, Consumer<BulkMutationProgress> listener) {
+        return inChunks(where, checkpoint, listener, (first, last) -> {
+            JPAUpdateClause update = queryFactory.update(memberEntity)
+                                                 .where(inChunk(first, last, where));
+            assignments.accept(update);
+            return update.execute();
+        });
+    }
+
+    /**
+     * 조건에 맞는 회원을 청크 단위로 삭제한다.
+     */
+    public BulkMutationProgress deleteInChunks(Predicate where, Long checkpoint, Consumer<BulkMutationProgress> listener) {
+        return inChunks(where, checkpoint, listener, (first, last) -> queryFactory
+                .delete(memberEntity)
+                .where(inChunk(first, last, where))
+                .execute());
+    }
+
+    /**
+     * 벌크 update/delete 는 join 을 만들 수 없으므로 조건(memberEntity.team.name 같은 연관 경로 포함)은
+     * 범위 안의 식별자를 고르는 서브쿼리에서 평가한다.
+     */
+    private static Predicate inChunk(Long first, Long last, Predicate where) {
+        return memberEntity.id.between(first, last)
+                              .and(memberEntity.id.in(JPAExpressions.select(memberEntity.id)
+                                                                    .from(memberEntity)
+                                                                    .where(memberEntity.id.between(first, last), where)));
+    }
+
+    /**
+     * - 청크 = checkpoint 이후 조건에 맞는 member_id chunk-size 개의 범위 [first, last], PK 인덱스로 범위를 찾는다.
+     * - 범위 안에서 조건을 다시 평가하므로 청크 조회와 실행 사이에 바뀐 행도 조건대로 처리된다. (inChunk)
+     * - 청크가 커밋되면 검색 캐시/팀 통계를 갱신한다. (벌크 연산은 Hibernate 이벤트가 발생하지 않음)
+     * - 청크마다 트랜잭션이 끝나므로 영속성 컨텍스트에 수정 전 엔티티가 남지 않는다.
+     *   호출한 쪽 트랜잭션의 영속성 컨텍스트는 비울 수 없으므로 트랜잭션 밖에서만 호출할 수 있다.
+     * - 스레드가 인터럽트되면 마지막으로 커밋된 청크까지 처리하고 멈춘다. (completed = false)
+     */
+    private BulkMutationProgress inChunks(Predicate where, Long checkpoint, Consumer<BulkMutationProgress> listener,
+                                          ChunkMutation mutation) {
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "Chunked bulk mutation commits each chunk, it must not run inside a transaction");
+        long start = System.currentTimeMillis();
+        int chunks = 0;
+        long affected = 0;
+        Long last = checkpoint;
+
+        while (true) {
+            Long after = last;
+            long[] chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = queryFactory.select(memberEntity.id)
+                                             .from(memberEntity)
+                                             .where(after != null ? memberEntity.id.gt(after) : null, where)
+                                             .orderBy(memberEntity.id.asc())
+                                             .limit(chunkSize)
+                                             .fetch();
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                Long first = ids.get(0);
+                Long lastId = ids.get(ids.size() - 1);
+                long rows = mutation.execute(first, lastId);
+                em.clear();
+                return new long[]{lastId, rows};
+            });
+            if (chunk == null) {
+                break;
+            }
+
+            last = chunk[0];
+            affected += chunk[1];
+            chunks++;
+            eventPublisher.publishEvent(new MemberDataChangedEvent(MemberEntity.class));
+            teamStatistics.requestReconcile();
+            listener.accept(new BulkMutationProgress(chunks, affected, last, System.currentTimeMillis() - start, false));
+
+            if (!throttle(affected, start)) {
+                log.info("Bulk mutation interrupted after {} chunks, checkpoint={}", chunks, last);
+                return new BulkMutationProgress(chunks, affected, last, System.currentTimeMillis() - start, false);
+            }
+        }
+
+        BulkMutationProgress done = new BulkMutationProgress(chunks, affected, last, System.currentTimeMillis() - start, true);
+        listener.accept(done);
+        log.info("Bulk mutation finished: {} rows in {} chunks, {} ms", affected, chunks, done.getElapsedMillis());
+        return done;
+    }
+
+    /**
+     * 지금까지 처리한 건수가 rows-per-second 를 넘지 않도록 대기
+     *
+     * @return 인터럽트 되면 false
+     */
+    private boolean throttle(long affected, long start) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        if (rowsPerSecond <= 0) {
+            return true;
+        }
+        long wait = affected * 1000 / rowsPerSecond - (System.currentTimeMillis() - start);
+        if (wait > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface ChunkMutation {
+        long execute(Long first, Long last);
+    }
+
+    private Map<String, TeamEntity> findTeams(List<MemberIngestRow> rows) {
+        Set<String> teamNames = rows.stream()
+                                    .filter(Objects::nonNull)
+                                    .map(MemberIngestRow::getTeamName)
+                                    .filter(name -> hasText(name))
+                                    .collect(Collectors.toSet());
+        if (teamNames.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return queryFactory.selectFrom(teamEntity)
+                           .where(teamEntity.name.in(teamNames))
+                           .fetch()
+                           .stream()
+                           .collect(Collectors.toMap(TeamEntity::getName, Function.identity(), (first, second) -> first));
+    }
+}
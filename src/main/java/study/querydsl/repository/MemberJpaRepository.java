@@ -3,15 +3,29 @@ package study.querydsl.repository;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberColumns;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.MemberEntity;
+import study.querydsl.repository.support.MemberColumnScanner;
+import study.querydsl.repository.support.MemberSearchTemplates;
+import study.querydsl.repository.support.SearchMetrics;
+import study.querydsl.repository.support.TeamDictionary;
+import study.querydsl.repository.support.UsernamePrefix;
 
 import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMemberEntity.*;
@@ -21,10 +35,19 @@ import static study.querydsl.entity.QTeamEntity.*;
 public class MemberJpaRepository {
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchTemplates searchTemplates;
+    private final TeamDictionary teamDictionary;
+    private final SearchMetrics searchMetrics;
+    private final MemberColumnScanner memberColumnScanner;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, MemberSearchTemplates searchTemplates, TeamDictionary teamDictionary,
+                               SearchMetrics searchMetrics, MemberColumnScanner memberColumnScanner) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.searchTemplates = searchTemplates;
+        this.teamDictionary = teamDictionary;
+        this.searchMetrics = searchMetrics;
+        this.memberColumnScanner = memberColumnScanner;
     }
 
     public void save(MemberEntity entity) {
@@ -41,6 +64,14 @@ public class MemberJpaRepository {
                  .getResultList();
     }
 
+    /**
+     * 분석용 전체/조건 스캔: 엔티티 대신 컬럼 별 기본형 배열로 반환 (MemberColumnScanner)
+     */
+    @Transactional(readOnly = true)
+    public MemberColumns scanColumns(MemberSearchCondition condition, int fetchSize, boolean withUsernames) {
+        return memberColumnScanner.scan(condition, fetchSize, withUsernames);
+    }
+
     public List<MemberEntity> findAllWithQueryDsl() {
         return queryFactory.selectFrom(memberEntity)
                            .fetch();
@@ -58,12 +89,19 @@ public class MemberJpaRepository {
                            .fetch();
     }
 
+    /**
+     * team left join 으로 검색하는 기준(baseline) 버전, 일부러 join 을 남겨둔다.
+     * - JPQL 템플릿(search) 과 결과가 같은지 확인하는 테스트, TeamJoinBenchmark 의 비교 대상으로 사용한다.
+     * - 운영 검색 경로(search, exportTo)는 team join 없이 TeamDictionary 를 사용한다.
+     */
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
         BooleanBuilder builder = new BooleanBuilder();
         if (hasText(condition.getUsername())) {
             builder.and(memberEntity.username.eq(condition.getUsername()));
         }
+        builder.and(UsernamePrefix.startsWith(condition.getUsernamePrefix()));
         if (hasText(condition.getTeamName())) {
             builder.and(teamEntity.name.eq(condition.getTeamName()));
         }
@@ -87,24 +125,60 @@ public class MemberJpaRepository {
                            .fetch();
     }
 
+    /**
+     * 조건 조합(shape) 별로 미리 만들어 둔 JPQL 템플릿에 파라미터만 바인딩하여 실행
+     * - Querydsl 로 작성한 동일한 쿼리는 searchByBuilder(team join 기준 버전), exportTo 참고
+     */
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory.select(
-                                   new QMemberTeamDto(
-                                           memberEntity.id,
-                                           memberEntity.username,
-                                           memberEntity.age,
-                                           teamEntity.id,
-                                           teamEntity.name
-                                   )
-                           )
-                           .from(memberEntity)
-                           .leftJoin(memberEntity.team, teamEntity)
-                           .where(
-                                   usernameEq(condition.getUsername()),
-                                   teamNameEq(condition.getTeamName()),
-                                   ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
-                           )
-                           .fetch();
+        return searchMetrics.content("MemberJpaRepository.search", condition,
+                () -> searchTemplates.search(em, condition));
+    }
+
+    /**
+     * 검색 결과를 List 로 모으지 않고 forward-only 커서로 한 건씩 consumer 에 넘긴다.
+     * - fetchSize 만큼씩 JDBC 드라이버가 가져오기 때문에 전체 결과 크기와 상관없이 힙 사용량이 일정하다.
+     * - fetchSize 건마다 영속성 컨텍스트를 비워준다.
+     * - team join 없이 조회하고 teamName 은 TeamDictionary 로 채운다.
+     * @return 내보낸 건수
+     */
+    @Transactional(readOnly = true)
+    public long exportTo(MemberSearchCondition condition, int fetchSize, Consumer<MemberTeamDto> consumer) {
+        long count = 0;
+        Map<Long, String> teamNames = new HashMap<>();
+        try (Stream<MemberTeamDto> stream =
+                     queryFactory.select(
+                                         new QMemberTeamDto(
+                                                 memberEntity.id,
+                                                 memberEntity.username,
+                                                 memberEntity.age,
+                                                 memberEntity.team.id
+                                         )
+                                 )
+                                 .from(memberEntity)
+                                 .where(
+                                         usernameEq(condition.getUsername()),
+                                         UsernamePrefix.startsWith(condition.getUsernamePrefix()),
+                                         teamDictionary.teamNameEq(condition.getTeamName()),
+                                         ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
+                                 )
+                                 .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                                 .stream()) {
+            Iterator<MemberTeamDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                MemberTeamDto member = iterator.next();
+                Long teamId = member.getTeamId();
+                if (teamId != null && !teamNames.containsKey(teamId)) {
+                    teamNames.putAll(teamDictionary.teamNames(Collections.singleton(teamId)));
+                    teamNames.putIfAbsent(teamId, null);
+                }
+                consumer.accept(teamDictionary.fillTeamName(member, teamNames));
+                if (++count % fetchSize == 0) {
+                    em.clear();
+                }
+            }
+        }
+        return count;
     }
 
     private BooleanExpression ageBetween(Integer ageLoe, Integer ageGoe) {
@@ -123,10 +197,6 @@ public class MemberJpaRepository {
         return hasText(username) ? memberEntity.username.eq(username) : null;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? teamEntity.name.eq(teamName) : null;
-    }
-
     private BooleanExpression ageGoe(Integer ageGeo) {
         return (ageGeo != null) ? memberEntity.age.goe(ageGeo) : null;
     }
@@ -1,7 +1,6 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryFactory;
-import com.querydsl.core.QueryResults;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
@@ -9,117 +8,149 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.MemberEntity;
+import study.querydsl.repository.support.MemberCountQuery;
+import study.querydsl.repository.support.InvalidCursorRequestException;
+import study.querydsl.repository.support.MemberCursor;
+import study.querydsl.repository.support.MemberSearchTemplates;
+import study.querydsl.repository.support.SearchCountCache;
+import study.querydsl.repository.support.SearchMetrics;
+import study.querydsl.repository.support.TeamDictionary;
+import study.querydsl.repository.support.UsernamePrefix;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMemberEntity.memberEntity;
-import static study.querydsl.entity.QTeamEntity.teamEntity;
 
 /**
  * PostFix '-Impl' 을 지켜줘야 한다.
+ * - 모든 메서드가 조회이므로 읽기 전용 트랜잭션 (flush 없음, dirty checking 스냅샷 없음, replica 라우팅)
  */
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
+    public static final int MAX_CURSOR_PAGE_SIZE = 2000;
 
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
-
-    public MemberRepositoryImpl(EntityManager em) {
+    private final SearchCountCache countCache;
+    private final MemberSearchTemplates searchTemplates;
+    private final TeamDictionary teamDictionary;
+    private final SearchMetrics searchMetrics;
+
+    public MemberRepositoryImpl(EntityManager em, SearchCountCache countCache,
+                                MemberSearchTemplates searchTemplates, TeamDictionary teamDictionary,
+                                SearchMetrics searchMetrics) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.countCache = countCache;
+        this.searchTemplates = searchTemplates;
+        this.teamDictionary = teamDictionary;
+        this.searchMetrics = searchMetrics;
     }
 
+    /**
+     * 조건 조합(shape) 별로 미리 만들어 둔 JPQL 템플릿에 파라미터만 바인딩하여 실행
+     */
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory.select(
-                                   new QMemberTeamDto(
-                                           memberEntity.id,
-                                           memberEntity.username,
-                                           memberEntity.age,
-                                           teamEntity.id,
-                                           teamEntity.name
-                                   )
-                           )
-                           .from(memberEntity)
-                           .leftJoin(memberEntity.team, teamEntity)
-                           .where(
-                                   usernameEq(condition.getUsername()),
-                                   teamNameEq(condition.getTeamName()),
-                                   ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
-                           )
-                           .fetch();
+        return searchMetrics.content("MemberRepository.search", condition,
+                () -> searchTemplates.search(em, condition));
     }
 
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory
+        List<MemberTeamDto> content = searchMetrics.content("MemberRepository.searchPageSimple", condition, () -> queryFactory
                 .select(
                         new QMemberTeamDto(
                                 memberEntity.id,
                                 memberEntity.username,
                                 memberEntity.age,
-                                teamEntity.id,
-                                teamEntity.name
+                                memberEntity.team.id
                         )
                 )
                 .from(memberEntity)
-                .leftJoin(memberEntity.team, teamEntity)
                 .where(
                         usernameEq(condition.getUsername()),
+                        UsernamePrefix.startsWith(condition.getUsernamePrefix()),
                         teamNameEq(condition.getTeamName()),
                         ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
                 )
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
-                .fetchResults();
+                .fetch());
+        teamDictionary.fillTeamNames(content);
 
-        List<MemberTeamDto> content = results.getResults();
-        long total = results.getTotal();
+        // fetchResults() 는 content 쿼리를 그대로 count 하므로(deprecated) 조건에 맞게 최소화된 Count Query 사용
+        JPAQuery<Long> countQuery = MemberCountQuery.of(queryFactory, condition, teamDictionary);
+        long total = searchMetrics.count("MemberRepository.searchPageSimple", condition,
+                () -> countCache.get(countQuery.toString(), condition, countQuery::fetchOne));
 
         return new PageImpl<>(content, pageable, total);
     }
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
+        List<MemberTeamDto> content = searchMetrics.content("MemberRepository.searchPageComplex", condition,
+                () -> searchTemplates.searchPage(em, condition, pageable));
+
+        // CountQuery 성능 최적화: Paging 상태를 판단하여 CountQuery가 필요없을 경우 수행하지 않음
+        // team join 이 없는 count(member.id) 템플릿, 같은 조건의 전체 건수는 SearchCountCache 에서 재사용
+        return searchMetrics.page("MemberRepository.searchPageComplex", condition, pageable, content,
+                () -> countCache.get(MemberSearchTemplates.COUNT_QUERY, condition, () -> searchTemplates.count(em, condition)));
+    }
+
+    /**
+     * Keyset(No-Offset) 페이징
+     * - offset 대신 마지막으로 조회한 memberId 보다 큰 데이터를 PK 인덱스로 바로 찾아가기 때문에
+     *   페이지 깊이와 상관없이 일정한 성능을 보장한다.
+     * - size + 1 개를 조회하여 다음 페이지 존재 여부를 판단한다. (Count Query 없음)
+     * - size 는 MAX_CURSOR_PAGE_SIZE 로 제한한다.
+     */
+    @Override
+    public CursorPage<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, int requestedSize) {
+        if (requestedSize <= 0) {
+            throw new InvalidCursorRequestException("Page size must be greater than zero!");
+        }
+        // Spring Data 의 Pageable 최대 크기(2000)와 같은 상한
+        int size = Math.min(requestedSize, MAX_CURSOR_PAGE_SIZE);
+        Long lastMemberId = MemberCursor.decode(cursor);
+
+        List<MemberTeamDto> content = searchMetrics.content("MemberRepository.searchByCursor", condition, () -> queryFactory
                 .select(
                         new QMemberTeamDto(
                                 memberEntity.id,
                                 memberEntity.username,
                                 memberEntity.age,
-                                teamEntity.id,
-                                teamEntity.name
+                                memberEntity.team.id
                         )
                 )
                 .from(memberEntity)
-                .leftJoin(memberEntity.team, teamEntity)
                 .where(
+                        memberIdGt(lastMemberId),
                         usernameEq(condition.getUsername()),
+                        UsernamePrefix.startsWith(condition.getUsernamePrefix()),
                         teamNameEq(condition.getTeamName()),
                         ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
                 )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .orderBy(memberEntity.id.asc())
+                .limit(size + 1)
+                .fetch());
+        teamDictionary.fillTeamNames(content);
 
-        JPAQuery<MemberEntity> countQuery = queryFactory
-                .select(memberEntity)
-                .from(memberEntity)
-                .leftJoin(memberEntity.team, teamEntity)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
-                );
-
-        // CountQuery 성능 최적화: Paging 상태를 판단하여 CountQuery가 필요없을 경우 수행하지 않음
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
-//        return new PageImpl<>(content, pageable, total);
+        if (content.size() <= size) {
+            return new CursorPage<>(content, null);
+        }
+        List<MemberTeamDto> page = new ArrayList<>(content.subList(0, size));
+        String nextCursor = MemberCursor.encode(page.get(size - 1).getMemberId());
+        return new CursorPage<>(page, nextCursor);
     }
 
     private BooleanExpression ageBetween(Integer ageLoe, Integer ageGoe) {
@@ -134,12 +165,19 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
         }
     }
 
+    private BooleanExpression memberIdGt(Long lastMemberId) {
+        return (lastMemberId != null) ? memberEntity.id.gt(lastMemberId) : null;
+    }
+
     private BooleanExpression usernameEq(String username) {
         return hasText(username) ? memberEntity.username.eq(username) : null;
     }
 
+    /**
+     * team join 없이 member.team_id 로 비교 (TeamDictionary)
+     */
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? teamEntity.name.eq(teamName) : null;
+        return teamDictionary.teamNameEq(teamName);
     }
 
     private BooleanExpression ageGoe(Integer ageGeo) {
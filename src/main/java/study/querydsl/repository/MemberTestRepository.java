@@ -7,12 +7,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.MemberEntity;
 import study.querydsl.entity.QMemberEntity;
-import study.querydsl.repository.support.Querydsl4RepositorySupport;
+import study.querydsl.repository.support.MemberCountQuery;
+import study.querydsl.repository.support.MemberQuerydslRepositorySupport;
+import study.querydsl.repository.support.MemberSearchTemplates;
+import study.querydsl.repository.support.UsernamePrefix;
 
 import java.util.List;
 
@@ -20,10 +24,17 @@ import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMemberEntity.*;
 import static study.querydsl.entity.QTeamEntity.teamEntity;
 
+/**
+ * 모든 메서드가 조회이므로 읽기 전용 트랜잭션 (flush 없음, dirty checking 스냅샷 없음, replica 라우팅)
+ */
 @Repository
-public class MemberTestRepository extends Querydsl4RepositorySupport {
-    public MemberTestRepository() {
+@Transactional(readOnly = true)
+public class MemberTestRepository extends MemberQuerydslRepositorySupport {
+    private final MemberSearchTemplates searchTemplates;
+
+    public MemberTestRepository(MemberSearchTemplates searchTemplates) {
         super(QMemberEntity.class);
+        this.searchTemplates = searchTemplates;
     }
 
     public List<MemberEntity> basicSelect() {
@@ -46,6 +57,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                         .leftJoin(memberEntity.team, teamEntity)
                         .where(
                                 usernameEq(condition.getUsername()),
+                                UsernamePrefix.startsWith(condition.getUsernamePrefix()),
                                 teamNameEq(condition.getTeamName()),
                                 ageGoe(condition.getAgeGoe()),
                                 ageLoe(condition.getAgeLoe())
@@ -61,11 +73,12 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
      *  CustomQueryDslSupport Class 사용 후 코드
      */
     public Page<MemberEntity> applyPagination(MemberSearchCondition condition, Pageable pageable) {
-        return applyPagination(pageable, query ->
+        return applyPagination(condition, pageable, query ->
                 query.selectFrom(memberEntity)
                      .leftJoin(memberEntity.team, teamEntity)
                      .where(
                              usernameEq(condition.getUsername()),
+                             UsernamePrefix.startsWith(condition.getUsernamePrefix()),
                              teamNameEq(condition.getTeamName()),
                              ageGoe(condition.getAgeGoe()),
                              ageLoe(condition.getAgeLoe())
@@ -75,30 +88,35 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     /**
      *  CustomQueryDslSupport Class 사용 후 코드
      *  - Complex version
+     *  - team join 없이 teamName 조건을 TeamDictionary 로 member.team_id 조건으로 바꿔서 조회
+     *  - Count Query 도 join 없는 count(member.id) 쿼리
      */
     public Page<MemberEntity> applyPaginationV2(MemberSearchCondition condition, Pageable pageable) {
-        return applyPagination(pageable,
+        return applyPagination(condition, pageable,
                 contentQuery ->
                         contentQuery.selectFrom(memberEntity)
-                                    .leftJoin(memberEntity.team, teamEntity)
                                     .where(
                                             usernameEq(condition.getUsername()),
-                                            teamNameEq(condition.getTeamName()),
+                                            UsernamePrefix.startsWith(condition.getUsernamePrefix()),
+                                            getTeamDictionary().teamNameEq(condition.getTeamName()),
                                             ageGoe(condition.getAgeGoe()),
                                             ageLoe(condition.getAgeLoe())
                                     ),
-                countQuery
-                        -> countQuery.selectFrom(memberEntity)
-                                     .leftJoin(memberEntity.team, teamEntity)
-                                     .where(
-                                             usernameEq(condition.getUsername()),
-                                             teamNameEq(condition.getTeamName()),
-                                             ageGoe(condition.getAgeGoe()),
-                                             ageLoe(condition.getAgeLoe())
-                                     )
+                countQuery -> MemberCountQuery.of(countQuery, condition, getTeamDictionary())
         );
     }
 
+    /**
+     *  조건 조합(shape) 별 JPQL 템플릿 사용 버전
+     *  - Querydsl 표현식 생성/직렬화 없이 미리 만들어 둔 JPQL 에 파라미터만 바인딩
+     */
+    public Page<MemberEntity> applyPaginationV3(MemberSearchCondition condition, Pageable pageable) {
+        return applyTemplatePagination(condition, pageable,
+                em -> searchTemplates.memberPage(em, condition, pageable),
+                MemberSearchTemplates.COUNT_QUERY,
+                em -> searchTemplates.count(em, condition));
+    }
+
     private BooleanExpression ageBetween(Integer ageLoe, Integer ageGoe) {
         if (ageLoe != null && ageGoe != null) {
             return ageGoe(ageGoe).and(ageLoe(ageLoe));
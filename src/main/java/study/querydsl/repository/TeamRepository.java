@@ -0,0 +1,23 @@
+package study.querydsl.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import study.querydsl.entity.TeamEntity;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+@Repository
+public interface TeamRepository extends JpaRepository<TeamEntity, Long>, TeamRepositoryCustom {
+
+    /**
+     * 팀 이름 조회는 쿼리 캐시(team-by-name 영역)에 식별자를 보관하고, 엔티티는 2차 캐시(team 영역)에서 가져온다.
+     * - team 테이블이 변경되면 Hibernate 가 쿼리 캐시를 자동으로 무효화한다.
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = "team-by-name")
+    })
+    List<TeamEntity> findByName(String name);
+}
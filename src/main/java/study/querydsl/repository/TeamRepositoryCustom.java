@@ -0,0 +1,9 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.TeamMembersDto;
+
+public interface TeamRepositoryCustom {
+    Page<TeamMembersDto> findTeamsWithMembers(Pageable pageable);
+}
@@ -0,0 +1,84 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QTeamMembersDto;
+import study.querydsl.dto.TeamMembersDto;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.entity.QMemberEntity.memberEntity;
+import static study.querydsl.entity.QTeamEntity.teamEntity;
+
+@Transactional(readOnly = true)
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+
+    public TeamRepositoryImpl(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    /**
+     * 팀 목록 + 팀별 회원 목록을 팀 수와 상관없이 고정된 쿼리 수로 조회 (N+1 없음)
+     * 1. 팀 페이지 조회 (team 테이블만 offset/limit, 컬렉션 fetch join 을 하지 않으므로 메모리 페이징 없음)
+     * 2. 해당 팀들의 회원을 team_id in (...) 쿼리 한 번으로 조회하여 팀 별로 나눈다.
+     * 3. Count Query (필요한 경우만)
+     */
+    @Override
+    public Page<TeamMembersDto> findTeamsWithMembers(Pageable pageable) {
+        List<TeamMembersDto> teams = queryFactory
+                .select(new QTeamMembersDto(teamEntity.id, teamEntity.name))
+                .from(teamEntity)
+                .orderBy(teamEntity.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        if (!teams.isEmpty()) {
+            Map<Long, List<MemberDto>> membersByTeamId = findMembersByTeamIds(teams);
+            for (TeamMembersDto team : teams) {
+                team.setMembers(membersByTeamId.getOrDefault(team.getTeamId(), new ArrayList<>()));
+            }
+        }
+
+        return PageableExecutionUtils.getPage(teams, pageable, this::countTeams);
+    }
+
+    private Map<Long, List<MemberDto>> findMembersByTeamIds(List<TeamMembersDto> teams) {
+        List<Long> teamIds = new ArrayList<>(teams.size());
+        for (TeamMembersDto team : teams) {
+            teamIds.add(team.getTeamId());
+        }
+
+        List<Tuple> rows = queryFactory
+                .select(memberEntity.team.id, memberEntity.username, memberEntity.age)
+                .from(memberEntity)
+                .where(memberEntity.team.id.in(teamIds))
+                .orderBy(memberEntity.id.asc())
+                .fetch();
+
+        Map<Long, List<MemberDto>> membersByTeamId = new HashMap<>();
+        for (Tuple row : rows) {
+            membersByTeamId.computeIfAbsent(row.get(memberEntity.team.id), teamId -> new ArrayList<>())
+                           .add(new MemberDto(row.get(memberEntity.username), row.get(memberEntity.age)));
+        }
+        return membersByTeamId;
+    }
+
+    private long countTeams() {
+        return queryFactory
+                .select(teamEntity.id.count())
+                .from(teamEntity)
+                .fetchOne();
+    }
+}
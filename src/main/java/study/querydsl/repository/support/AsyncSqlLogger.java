@@ -0,0 +1,143 @@
+package study.querydsl.repository.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 운영용 SQL 로그 (member.sql-log.enabled)
+ * - p6spy JdbcEventListener 로 실행된 SQL 을 받아서, 요청 스레드에서는 큐에 넣기만 하고 별도 스레드에서 로그를 쓴다.
+ * - slow-threshold 이상 걸린 SQL 과 실패한 SQL 은 항상, 나머지는 sample-rate 비율만 남긴다. (바인딩 파라미터 + 실행 시간 포함)
+ * - 큐가 가득 차면 요청 스레드를 막지 않고 버리며 sql.log.dropped 로 기록한다.
+ * - 로그는 study.querydsl.sql 로거로 남는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.sql-log.enabled", havingValue = "true")
+public class AsyncSqlLogger extends SimpleJdbcEventListener implements DisposableBean {
+    private static final Logger SQL_LOG = LoggerFactory.getLogger("study.querydsl.sql");
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Counter slowLogged;
+    private final Counter sampledLogged;
+    private final Counter slowDropped;
+    private final Counter sampledDropped;
+
+    public AsyncSqlLogger(MeterRegistry meterRegistry,
+                          @Value("${member.sql-log.sample-rate:0.01}") double sampleRate,
+                          @Value("${member.sql-log.slow-threshold:200ms}") Duration slowThreshold,
+                          @Value("${member.sql-log.queue-capacity:10000}") int queueCapacity) {
+        this(meterRegistry, sampleRate, slowThreshold, queueCapacity, true);
+    }
+
+    /**
+     * startWriter = false 이면 start() 전까지 큐를 비우지 않는다. (테스트에서 큐가 가득 찬 상황을 만들 때)
+     */
+    AsyncSqlLogger(MeterRegistry meterRegistry, double sampleRate, Duration slowThreshold, int queueCapacity,
+                   boolean startWriter) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.slowLogged = Counter.builder("sql.log.queued").tag("kind", "slow").register(meterRegistry);
+        this.sampledLogged = Counter.builder("sql.log.queued").tag("kind", "sampled").register(meterRegistry);
+        this.slowDropped = Counter.builder("sql.log.dropped").tag("kind", "slow").register(meterRegistry);
+        this.sampledDropped = Counter.builder("sql.log.dropped").tag("kind", "sampled").register(meterRegistry);
+        meterRegistry.gauge("sql.log.queue.size", queue, BlockingQueue::size);
+
+        this.writer = new Thread(this::drain, "sql-log-writer");
+        this.writer.setDaemon(true);
+        if (startWriter) {
+            start();
+        }
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        boolean slow = timeElapsedNanos >= slowThresholdNanos;
+        if (!slow && e == null && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        // 남길 SQL 만 파라미터를 바인딩한 문자열로 만든다.
+        Entry entry = new Entry(statementInformation.getSqlWithValues(), timeElapsedNanos, slow, e);
+        // 실패한 SQL 도 샘플링 없이 항상 남기므로 slow 로 집계
+        boolean always = slow || e != null;
+        if (queue.offer(entry)) {
+            (always ? slowLogged : sampledLogged).increment();
+        } else {
+            (always ? slowDropped : sampledDropped).increment();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry entry = running ? queue.take() : queue.poll();
+                if (entry != null) {
+                    write(entry);
+                }
+            } catch (InterruptedException e) {
+                // 종료: 남은 로그를 비우고 끝낸다.
+                running = false;
+            } catch (RuntimeException e) {
+                log.warn("Failed to write sql log", e);
+            }
+        }
+    }
+
+    private static void write(Entry entry) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(entry.elapsedNanos);
+        if (entry.error != null) {
+            SQL_LOG.warn("[failed] {} ms | {} | {}", elapsedMillis, entry.sql, entry.error.getMessage());
+        } else if (entry.slow) {
+            SQL_LOG.warn("[slow] {} ms | {}", elapsedMillis, entry.sql);
+        } else {
+            SQL_LOG.info("[sampled] {} ms | {}", elapsedMillis, entry.sql);
+        }
+    }
+
+    private static final class Entry {
+        private final String sql;
+        private final long elapsedNanos;
+        private final boolean slow;
+        private final SQLException error;
+
+        private Entry(String sql, long elapsedNanos, boolean slow, SQLException error) {
+            this.sql = sql;
+            this.elapsedNanos = elapsedNanos;
+            this.slow = slow;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.repository.support;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * AsyncCache 에 조회 중인 future 를 먼저 넣고, 조회는 맵 잠금 밖의 호출 스레드에서 실행한다.
+ * - 동기 Cache.get(key, loader) 는 조회하는 동안 같은 해시 구간의 다른 키 갱신까지 막는다.
+ * - 조회는 호출 스레드의 트랜잭션/EntityManager 를 사용해야 하므로 별도 executor 로 넘기지 않는다.
+ * - 같은 키의 동시 miss 는 먼저 넣은 future 를 기다린다. 조회가 실패하면 Caffeine 이 그 항목을 제거한다.
+ */
+final class CallerRunsCacheLoader {
+
+    private CallerRunsCacheLoader() {
+    }
+
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(loader.get());
+            } catch (RuntimeException | Error e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * MemberEntity / TeamEntity 의 insert, update, delete 가 커밋된 이후 MemberDataChangedEvent 를 발행한다.
+ * - Hibernate post-commit 리스너를 사용하기 때문에 롤백된 변경은 이벤트가 발생하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeEventPublisher implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                                            .getServiceRegistry()
+                                            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        Class<?> mappedClass = persister.getMappedClass();
+        return mappedClass == MemberEntity.class || mappedClass == TeamEntity.class;
+    }
+
+    private void publish(Object entity) {
+        if (entity instanceof MemberEntity || entity instanceof TeamEntity) {
+            eventPublisher.publishEvent(new MemberDataChangedEvent(entity.getClass()));
+        }
+    }
+}
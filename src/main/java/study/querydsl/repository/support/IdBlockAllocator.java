@@ -0,0 +1,36 @@
+package study.querydsl.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JDBC 로 직접 insert 할 때 사용할 식별자 블록을 DB 시퀀스에서 예약한다.
+ * - 예약한 구간 [base, base + count) 는 이후 Hibernate 가 시퀀스에서 받아가는 값과 겹치지 않는다.
+ * - Hibernate pooled optimizer 는 시퀀스 값 hi 를 받으면 (hi - ALLOCATION_SIZE, hi] 구간을 사용하므로
+ *   시퀀스를 base + count + ALLOCATION_SIZE - 1 로 재시작한다.
+ * - (H2) 시퀀스를 재시작하므로, 동시에 다른 곳에서 insert 가 일어나지 않는 초기화 시점에 사용한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdBlockAllocator {
+    // MemberEntity, TeamEntity 의 @SequenceGenerator allocationSize 와 같아야 한다.
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long reserveTeamIds(long count) {
+        return reserve("team_seq", count);
+    }
+
+    public long reserveMemberIds(long count) {
+        return reserve("member_seq", count);
+    }
+
+    private synchronized long reserve(String sequence, long count) {
+        Long hi = jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+        long base = Math.max(hi - (ALLOCATION_SIZE - 1), 1);
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (base + count + ALLOCATION_SIZE - 1));
+        return base;
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.repository.support;
+
+/**
+ * Keyset 페이징 요청 값(cursor, size)이 잘못된 경우
+ * - 컨트롤러는 이 예외만 400 으로 응답한다. (다른 IllegalArgumentException 은 서버 오류)
+ */
+public class InvalidCursorRequestException extends IllegalArgumentException {
+
+    public InvalidCursorRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,283 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.MemberEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static study.querydsl.entity.QMemberEntity.memberEntity;
+
+/**
+ * 회원 식별자 조회 묶음 처리 (DataLoader 방식)
+ * - 여러 스레드에서 동시에 들어온 findById 를 window 동안(또는 max-batch-size 개까지) 모아서
+ *   member_id in (...) 쿼리 한 번으로 조회하고, 각 호출자에게 자기 결과를 돌려준다.
+ * - 모은 묶음은 작은 작업 스레드 풀(workers)에서 조회하므로 느린 묶음 하나가 다음 묶음을 막지 않는다.
+ *   묶음 쿼리에는 timeout 을 쿼리 타임아웃으로 걸고, 기다리다 포기한 호출자의 식별자는 조회하지 않는다.
+ * - in 절 파라미터 개수는 hibernate.query.in_clause_parameter_padding 으로 2의 거듭제곱으로 맞춰져
+ *   묶음 크기가 달라도 같은 SQL(실행 계획)을 재사용한다.
+ * - 호출한 스레드에 묶인 영속성 컨텍스트(트랜잭션 또는 open-in-view)에 이미 있는 회원은 그대로 사용하고,
+ *   쓰기 트랜잭션 안에서는 커밋되지 않은 데이터가 보여야 하므로 묶지 않고 바로 조회한다.
+ * - 엔티티를 돌려주는 MemberJpaRepository.findById / MemberRepository.findById 는 호출자의 영속성 컨텍스트에
+ *   관리되는 엔티티를 돌려줘야 하므로 이 로더로 바꾸지 않는다. 조회 전용 DTO 가 필요한 호출자
+ *   (GET /v1/members/{id}) 가 이 로더를 사용한다.
+ */
+@Slf4j
+@Component
+public class MemberBatchLoader implements DisposableBean {
+    private static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final TeamDictionary teamDictionary;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutNanos;
+    private final int queryTimeoutMillis;
+
+    private final BlockingQueue<Lookup> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private final ExecutorService workers;
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSize;
+    private final Counter persistenceContextHits;
+    private final Counter directLookups;
+    private final Counter batchedLookups;
+
+    public MemberBatchLoader(EntityManager em,
+                             EntityManagerFactory emf,
+                             TeamDictionary teamDictionary,
+                             MeterRegistry meterRegistry,
+                             @Value("${member.batch-lookup.window:2ms}") Duration window,
+                             @Value("${member.batch-lookup.max-batch-size:256}") int maxBatchSize,
+                             @Value("${member.batch-lookup.timeout:5s}") Duration timeout,
+                             @Value("${member.batch-lookup.workers:4}") int workers) {
+        this.em = em;
+        this.emf = emf;
+        this.teamDictionary = teamDictionary;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutNanos = timeout.toNanos();
+        this.queryTimeoutMillis = (int) timeout.toMillis();
+
+        this.batchSize = DistributionSummary.builder("member.lookup.batch.size")
+                                            .register(meterRegistry);
+        this.persistenceContextHits = Counter.builder("member.lookup").tag("source", "persistence_context")
+                                             .register(meterRegistry);
+        this.directLookups = Counter.builder("member.lookup").tag("source", "direct")
+                                    .register(meterRegistry);
+        this.batchedLookups = Counter.builder("member.lookup").tag("source", "batch")
+                                     .register(meterRegistry);
+
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "member-batch-loader-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatch, "member-batch-loader");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public Optional<MemberTeamDto> findById(Long id) {
+        EntityManager boundEm = boundEntityManager();
+        if (boundEm != null) {
+            MemberEntity cached = findInPersistenceContext(boundEm, id);
+            if (cached != null) {
+                persistenceContextHits.increment();
+                return Optional.of(toDto(cached));
+            }
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            directLookups.increment();
+            return Optional.ofNullable(em.find(MemberEntity.class, id)).map(this::toDto);
+        }
+
+        batchedLookups.increment();
+        Lookup lookup = new Lookup(id);
+        queue.add(lookup);
+        try {
+            return Optional.ofNullable(lookup.result.get(timeoutNanos, TimeUnit.NANOSECONDS));
+        } catch (InterruptedException e) {
+            lookup.result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for member " + id, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load member " + id, e.getCause());
+        } catch (TimeoutException e) {
+            // 아직 조회 전이면 묶음에서 빠진다.
+            lookup.result.cancel(false);
+            throw new IllegalStateException("Timed out while waiting for member " + id, e);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        workers.shutdownNow();
+        Lookup lookup;
+        while ((lookup = queue.poll()) != null) {
+            lookup.result.completeExceptionally(new IllegalStateException("MemberBatchLoader is shut down"));
+        }
+    }
+
+    private void dispatch() {
+        while (running) {
+            List<Lookup> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                workers.execute(() -> resolveOrFail(batch));
+            } catch (RejectedExecutionException e) {
+                batch.forEach(lookup -> lookup.result.completeExceptionally(
+                        new IllegalStateException("MemberBatchLoader is shut down", e)));
+            }
+        }
+    }
+
+    private void resolveOrFail(List<Lookup> batch) {
+        try {
+            resolve(batch);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load member batch of {}", batch.size(), e);
+            batch.forEach(lookup -> lookup.result.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * 첫 요청을 기다린 뒤 window 가 지나거나 maxBatchSize 개가 모일 때까지 모은다.
+     */
+    private List<Lookup> nextBatch() throws InterruptedException {
+        List<Lookup> batch = new ArrayList<>();
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            Lookup next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void resolve(List<Lookup> batch) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Lookup lookup : batch) {
+            // 이미 포기한(timeout) 호출자는 제외
+            if (!lookup.result.isDone()) {
+                ids.add(lookup.id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        batchSize.record(ids.size());
+
+        Map<Long, MemberTeamDto> membersById = new HashMap<>();
+        for (MemberTeamDto member : load(ids)) {
+            membersById.put(member.getMemberId(), member);
+        }
+        for (Lookup lookup : batch) {
+            MemberTeamDto member = membersById.get(lookup.id);
+            // 같은 식별자를 여러 호출자가 요청한 경우 서로 공유하지 않도록 복사해서 돌려준다.
+            lookup.result.complete(member == null ? null : copy(member));
+        }
+    }
+
+    private List<MemberTeamDto> load(Set<Long> ids) {
+        EntityManager batchEm = emf.createEntityManager();
+        try {
+            Session session = batchEm.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            List<MemberTeamDto> members = new JPAQueryFactory(batchEm)
+                    .select(new QMemberTeamDto(memberEntity.id, memberEntity.username, memberEntity.age, memberEntity.team.id))
+                    .from(memberEntity)
+                    .where(memberEntity.id.in(ids))
+                    .setHint(QUERY_TIMEOUT_HINT, queryTimeoutMillis)
+                    .fetch();
+            return teamDictionary.fillTeamNames(members);
+        } finally {
+            batchEm.close();
+        }
+    }
+
+    /**
+     * 현재 스레드에 묶인 EntityManager (트랜잭션 또는 OpenEntityManagerInViewInterceptor), 없으면 null
+     * - 공유 EntityManager 프록시는 묶인 것이 없으면 호출마다 새 EntityManager 를 만들므로 직접 확인한다.
+     */
+    private EntityManager boundEntityManager() {
+        Object resource = TransactionSynchronizationManager.getResource(emf);
+        return resource instanceof EntityManagerHolder ? ((EntityManagerHolder) resource).getEntityManager() : null;
+    }
+
+    private MemberEntity findInPersistenceContext(EntityManager boundEm, Long id) {
+        SessionImplementor session = boundEm.unwrap(SessionImplementor.class);
+        EntityKey key = session.generateEntityKey(id,
+                session.getFactory().getMetamodel().entityPersister(MemberEntity.class));
+        return (MemberEntity) session.getPersistenceContextInternal().getEntity(key);
+    }
+
+    private MemberTeamDto toDto(MemberEntity member) {
+        Long teamId = member.getTeam() != null ? member.getTeam().getId() : null;
+        MemberTeamDto dto = new MemberTeamDto(member.getId(), member.getUsername(), member.getAge(), teamId);
+        return teamDictionary.fillTeamNames(List.of(dto)).get(0);
+    }
+
+    private static MemberTeamDto copy(MemberTeamDto member) {
+        return new MemberTeamDto(member.getMemberId(), member.getUsername(), member.getAge(),
+                member.getTeamId(), member.getTeamName());
+    }
+
+    private static final class Lookup {
+        private final Long id;
+        private final CompletableFuture<MemberTeamDto> result = new CompletableFuture<>();
+
+        private Lookup(Long id) {
+            this.id = id;
+        }
+    }
+}
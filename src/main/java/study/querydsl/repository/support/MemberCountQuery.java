@@ -0,0 +1,50 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import study.querydsl.dto.MemberSearchCondition;
+
+import static study.querydsl.entity.QMemberEntity.memberEntity;
+
+/**
+ * 회원 검색의 Count Query 를 검색 조건에 맞게 최소한으로 만들어준다.
+ * - select 절은 엔티티 전체가 아닌 count(member.id)
+ * - team 과 join 하지 않는다. teamName 조건은 TeamDictionary 로 member.team_id 조건이 된다.
+ *   (member -> team 은 ManyToOne 이므로 join 을 제거해도 건수는 같다.)
+ */
+public final class MemberCountQuery {
+    // SearchCountCache 에서 이 Count Query 의 결과를 구분하는 이름 (JPQL 은 검색 조건만으로 정해진다)
+    public static final String COUNT_QUERY = "MemberCountQuery";
+
+    private MemberCountQuery() {
+    }
+
+    public static JPAQuery<Long> of(JPAQueryFactory queryFactory, MemberSearchCondition condition,
+                                    TeamDictionary teamDictionary) {
+        MemberSearchCondition normalized = condition.normalize();
+
+        return queryFactory
+                .select(memberEntity.id.count())
+                .from(memberEntity)
+                .where(
+                        usernameEq(normalized.getUsername()),
+                        teamDictionary.teamNameEq(normalized.getTeamName()),
+                        ageGoe(normalized.getAgeGoe()),
+                        ageLoe(normalized.getAgeLoe()),
+                        UsernamePrefix.startsWith(normalized.getUsernamePrefix())
+                );
+    }
+
+    private static BooleanExpression usernameEq(String username) {
+        return (username != null) ? memberEntity.username.eq(username) : null;
+    }
+
+    private static BooleanExpression ageGoe(Integer ageGoe) {
+        return (ageGoe != null) ? memberEntity.age.goe(ageGoe) : null;
+    }
+
+    private static BooleanExpression ageLoe(Integer ageLoe) {
+        return (ageLoe != null) ? memberEntity.age.loe(ageLoe) : null;
+    }
+}
@@ -0,0 +1,48 @@
+package study.querydsl.repository.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * Keyset 페이징에 사용하는 커서 토큰 인코더/디코더
+ * - 마지막으로 조회한 memberId 를 Base64(URL-safe) 로 감싸서 클라이언트에 내부 키를 노출하지 않는다.
+ */
+public final class MemberCursor {
+    private static final String PREFIX = "m:";
+
+    private MemberCursor() {
+    }
+
+    public static String encode(Long lastMemberId) {
+        String raw = PREFIX + lastMemberId;
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return 커서가 비어있으면 null (첫 페이지)
+     * @throws InvalidCursorRequestException 잘못된 커서 토큰
+     */
+    public static Long decode(String cursor) {
+        if (!hasText(cursor)) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorRequestException("Invalid cursor", e);
+        }
+        if (!raw.startsWith(PREFIX)) {
+            throw new InvalidCursorRequestException("Invalid cursor");
+        }
+        try {
+            return Long.valueOf(raw.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorRequestException("Invalid cursor", e);
+        }
+    }
+}
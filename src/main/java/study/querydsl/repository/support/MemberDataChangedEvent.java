@@ -0,0 +1,17 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+
+/**
+ * Member / Team 데이터가 변경(커밋)되었음을 알리는 이벤트
+ * - 엔티티 변경은 EntityChangeEventPublisher 가 커밋 이후에 발행한다.
+ * - 벌크 수정/삭제처럼 영속성 컨텍스트를 거치지 않는 경로는 직접 발행해야 한다.
+ */
+@Getter
+public class MemberDataChangedEvent {
+    private final Class<?> entityType;
+
+    public MemberDataChangedEvent(Class<?> entityType) {
+        this.entityType = entityType;
+    }
+}
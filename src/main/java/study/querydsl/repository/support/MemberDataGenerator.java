@@ -0,0 +1,185 @@
+package study.querydsl.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 대용량 테스트 데이터 생성기
+ * - 영속성 컨텍스트를 거치지 않고 JDBC batch insert 로 바로 저장하므로 엔티티가 쌓이지 않는다. (flush/clear 불필요)
+ * - 회원은 batchSize 단위 청크로 나누어 여러 스레드(각자의 커넥션)가 병렬로 저장한다.
+ * - 한 청크의 행은 BatchPreparedStatementSetter 에서 그때그때 만들기 때문에 데이터 크기와 상관없이 메모리 사용량이 일정하다.
+ * - 청크 번호로 난수 시드를 정하므로 스레드 수와 상관없이 같은 설정이면 같은 데이터가 만들어진다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberDataGenerator {
+    private static final String INSERT_TEAM = "insert into team (team_id, name) values (?, ?)";
+    private static final String INSERT_MEMBER = "insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator idBlockAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TeamStatistics teamStatistics;
+
+    public void generate(MemberDataSpec spec) {
+        Assert.isTrue(spec.getTeams() > 0, "Team count must be greater than zero!");
+        Assert.isTrue(spec.getBatchSize() > 0, "Batch size must be greater than zero!");
+        long start = System.currentTimeMillis();
+
+        long teamBaseId = idBlockAllocator.reserveTeamIds(spec.getTeams());
+        long memberBaseId = idBlockAllocator.reserveMemberIds(spec.getMembers());
+
+        insertTeams(spec, teamBaseId);
+        insertMembers(spec, teamBaseId, memberBaseId);
+        // JDBC 로 직접 넣었으므로 Hibernate 이벤트가 발생하지 않는다. (팀 사전, 검색 캐시, 팀 통계 갱신)
+        eventPublisher.publishEvent(new MemberDataChangedEvent(TeamEntity.class));
+        eventPublisher.publishEvent(new MemberDataChangedEvent(MemberEntity.class));
+        teamStatistics.requestReconcile();
+
+        log.info("Generated {} teams, {} members in {} ms",
+                spec.getTeams(), spec.getMembers(), System.currentTimeMillis() - start);
+    }
+
+    public static String teamName(int index) {
+        // 기존 데이터와 호환: teamA, teamB, ... teamZ, team26, team27 ...
+        return index < 26 ? "team" + (char) ('A' + index) : "team" + index;
+    }
+
+    private void insertTeams(MemberDataSpec spec, long teamBaseId) {
+        for (int from = 0; from < spec.getTeams(); from += spec.getBatchSize()) {
+            int offset = from;
+            int size = Math.min(spec.getBatchSize(), spec.getTeams() - from);
+            jdbcTemplate.batchUpdate(INSERT_TEAM, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, teamBaseId + offset + i);
+                    ps.setString(2, teamName(offset + i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    private void insertMembers(MemberDataSpec spec, long teamBaseId, long memberBaseId) {
+        Sampler teamSampler = Sampler.of(spec.getTeamDistribution(), spec.getTeams(), spec.getZipfExponent());
+        Sampler ageSampler = Sampler.of(spec.getAgeDistribution(), spec.getMaxAge(), spec.getZipfExponent());
+        long chunks = (spec.getMembers() + spec.getBatchSize() - 1) / spec.getBatchSize();
+        AtomicLong nextChunk = new AtomicLong();
+
+        int threads = Math.max(1, spec.getThreads());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    long chunk;
+                    while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                        insertMemberChunk(spec, chunk, teamSampler, ageSampler, teamBaseId, memberBaseId);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Member generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Member generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertMemberChunk(MemberDataSpec spec, long chunk, Sampler teamSampler, Sampler ageSampler,
+                                   long teamBaseId, long memberBaseId) {
+        long from = chunk * spec.getBatchSize();
+        int size = (int) Math.min(spec.getBatchSize(), spec.getMembers() - from);
+        SplittableRandom random = new SplittableRandom(spec.getSeed() + chunk);
+
+        jdbcTemplate.batchUpdate(INSERT_MEMBER, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long index = from + i;
+                ps.setLong(1, memberBaseId + index);
+                ps.setString(2, "member" + index);
+                ps.setInt(3, ageSampler.sample(index, random));
+                ps.setLong(4, teamBaseId + teamSampler.sample(index, random));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return size;
+            }
+        });
+    }
+
+    /**
+     * 0 ~ n-1 사이의 값을 분포에 맞게 뽑는다.
+     */
+    private static final class Sampler {
+        private final MemberDataSpec.Distribution distribution;
+        private final int n;
+        // ZIPF 누적분포
+        private final double[] cdf;
+
+        private Sampler(MemberDataSpec.Distribution distribution, int n, double[] cdf) {
+            this.distribution = distribution;
+            this.n = n;
+            this.cdf = cdf;
+        }
+
+        static Sampler of(MemberDataSpec.Distribution distribution, int n, double exponent) {
+            Assert.isTrue(n > 0, "Sample range must be greater than zero!");
+            if (distribution != MemberDataSpec.Distribution.ZIPF) {
+                return new Sampler(distribution, n, null);
+            }
+            double[] cdf = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cdf[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cdf[k] /= sum;
+            }
+            return new Sampler(distribution, n, cdf);
+        }
+
+        int sample(long index, SplittableRandom random) {
+            switch (distribution) {
+                case ROUND_ROBIN:
+                    return (int) (index % n);
+                case UNIFORM:
+                    return random.nextInt(n);
+                default:
+                    int pos = Arrays.binarySearch(cdf, random.nextDouble());
+                    return Math.min(pos >= 0 ? pos : -pos - 1, n - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package study.querydsl.repository.support;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 테스트 데이터 생성 설정 (member.init.*)
+ * - 기본값은 기존 InitMember 와 같은 데이터(teamA/teamB 에 번갈아 가며 member0 ~ member199, 나이 0 ~ 199)를 만든다.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "member.init")
+public class MemberDataSpec {
+    private long members = 200;
+    private int teams = 2;
+
+    private Distribution teamDistribution = Distribution.ROUND_ROBIN;
+    private Distribution ageDistribution = Distribution.ROUND_ROBIN;
+    private int maxAge = 200;
+    // ZIPF 분포의 기울기 (클수록 앞쪽 팀/나이에 몰린다)
+    private double zipfExponent = 1.0;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 1000;
+    private long seed = 42L;
+
+    public enum Distribution {
+        // i 번째 회원 -> i % n
+        ROUND_ROBIN,
+        UNIFORM,
+        ZIPF
+    }
+}
@@ -0,0 +1,26 @@
+package study.querydsl.repository.support;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * member / team 테이블의 데이터 버전
+ * - Member/Team 변경이 커밋될 때마다(MemberDataChangedEvent) 증가한다.
+ * - epoch 는 인스턴스 시작 시각이므로 재시작하거나 다른 인스턴스에서 만든 버전과 겹치지 않는다.
+ */
+@Component
+public class MemberDataVersion {
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    public String current() {
+        return Long.toString(epoch, 36) + "-" + version.get();
+    }
+
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
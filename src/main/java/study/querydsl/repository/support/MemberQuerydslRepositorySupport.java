@@ -0,0 +1,128 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 회원 검색 조건(MemberSearchCondition) 기반 페이징을 추가한 Querydsl4RepositorySupport
+ * - Count Query 최소화(MemberCountQuery), 전체 건수 캐시(SearchCountCache), Count Query 동시 실행(ParallelCountExecutor),
+ *   팀 이름 조건(TeamDictionary), 검색 메트릭(SearchMetrics) 을 사용한다.
+ * - 회원이 아닌 엔티티의 Repository 는 Querydsl4RepositorySupport 를 그대로 사용한다.
+ */
+public abstract class MemberQuerydslRepositorySupport extends Querydsl4RepositorySupport {
+    private SearchCountCache countCache;
+    private ParallelCountExecutor parallelCountExecutor;
+    private TeamDictionary teamDictionary;
+    private SearchMetrics searchMetrics;
+
+    public MemberQuerydslRepositorySupport(Class<?> domainClass) {
+        super(domainClass);
+    }
+
+    @Autowired
+    public void setCountCache(SearchCountCache countCache) {
+        this.countCache = countCache;
+    }
+
+    @Autowired
+    public void setParallelCountExecutor(ParallelCountExecutor parallelCountExecutor) {
+        this.parallelCountExecutor = parallelCountExecutor;
+    }
+
+    @Autowired
+    public void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+    }
+
+    @Autowired
+    public void setTeamDictionary(TeamDictionary teamDictionary) {
+        this.teamDictionary = teamDictionary;
+    }
+
+    protected TeamDictionary getTeamDictionary() {
+        return teamDictionary;
+    }
+
+    /**
+     * 회원 검색 조건 기반 페이징
+     * - Count Query 는 MemberCountQuery 로 조건에 맞게 최소화하고, 같은 조건의 전체 건수는 SearchCountCache 에서 재사용한다.
+     */
+    protected <T> Page<T> applyPagination(MemberSearchCondition condition, Pageable pageable,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        return applyPagination(condition, pageable, contentQuery, MemberCountQuery.COUNT_QUERY,
+                queryFactory -> MemberCountQuery.of(queryFactory, condition, teamDictionary));
+    }
+
+    /**
+     * - member.parallel-count.enabled 인 경우 Count Query 를 별도 커넥션에서 Content Query 와 동시에 실행한다.
+     * - 전체 건수 캐시는 Count Query 의 JPQL 로 구분한다. (같은 조건이라도 Count Query 가 다르면 건수가 다를 수 있다)
+     */
+    protected <T> Page<T> applyPagination(MemberSearchCondition condition, Pageable pageable,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                          Function<JPAQueryFactory, JPAQuery<Long>> countQuery) {
+        return applyPagination(condition, pageable, contentQuery, null, countQuery);
+    }
+
+    /**
+     * @param countQueryName null 이면 Count Query 를 실행할 때 만든 JPQL 을 캐시 키로 사용한다.
+     *                       (Count Query 가 생략되는 페이지에서는 Count Query 를 만들지도 않는다)
+     */
+    private <T> Page<T> applyPagination(MemberSearchCondition condition, Pageable pageable,
+                                        Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                        String countQueryName,
+                                        Function<JPAQueryFactory, JPAQuery<Long>> countQuery) {
+        String method = metricName("applyPagination");
+        SearchMetrics.CountProbe countProbe = searchMetrics.countProbe(method, condition);
+        Supplier<List<T>> content = () -> searchMetrics.content(method, condition,
+                () -> getQuerydsl().applyPagination(pageable, contentQuery.apply(getQueryFactory())).fetch());
+        ToLongFunction<EntityManager> count;
+        if (countQueryName != null) {
+            count = em -> countCache.get(countQueryName, condition,
+                    () -> countQuery.apply(new JPAQueryFactory(em)).fetchOne());
+        } else {
+            count = em -> {
+                JPAQuery<Long> query = countQuery.apply(new JPAQueryFactory(em));
+                return countCache.get(query.toString(), condition, query::fetchOne);
+            };
+        }
+        Page<T> page = parallelCountExecutor.getPage(pageable, content, count, getEntityManager(), countProbe);
+        countProbe.finish();
+        return page;
+    }
+
+    /**
+     * MemberSearchTemplates 처럼 EntityManager 로 직접 쿼리를 실행하는 경우의 회원 검색 조건 기반 페이징
+     * @param countQueryName SearchCountCache 에서 Count Query 를 구분하는 이름 (같은 이름은 같은 건수를 반환해야 한다)
+     */
+    protected <T> Page<T> applyTemplatePagination(MemberSearchCondition condition, Pageable pageable,
+                                                  Function<EntityManager, List<T>> contentQuery,
+                                                  String countQueryName,
+                                                  ToLongFunction<EntityManager> countQuery) {
+        String method = metricName("applyTemplatePagination");
+        SearchMetrics.CountProbe countProbe = searchMetrics.countProbe(method, condition);
+        Supplier<List<T>> content = () -> searchMetrics.content(method, condition,
+                () -> contentQuery.apply(getEntityManager()));
+        ToLongFunction<EntityManager> count = em ->
+                countCache.get(countQueryName, condition, () -> countQuery.applyAsLong(em));
+        Page<T> page = parallelCountExecutor.getPage(pageable, content, count, getEntityManager(), countProbe);
+        countProbe.finish();
+        return page;
+    }
+
+    /**
+     * 메트릭의 method 태그: 구현 클래스 이름 + 메서드 이름 (예: MemberTestRepository.applyPagination)
+     */
+    private String metricName(String method) {
+        return getClass().getSimpleName() + "." + method;
+    }
+}
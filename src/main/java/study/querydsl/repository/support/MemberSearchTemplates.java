@@ -0,0 +1,246 @@
+package study.querydsl.repository.support;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.MemberEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 검색 조건 모양(shape) 별로 미리 만들어 둔 JPQL 템플릿
+ * - MemberSearchCondition 의 5개 필드(username, teamName, ageGoe, ageLoe, usernamePrefix) 존재 여부 조합은 32가지 뿐이므로
+ *   조합 별 JPQL 을 한 번만 만들어 두고, 요청마다 파라미터 값만 바인딩한다.
+ * - 매 요청 Querydsl 표현식 트리 생성/JPQL 직렬화 비용이 사라지고,
+ *   항상 같은 JPQL 문자열을 사용하므로 Hibernate 의 QueryPlanCache 도 그대로 재사용된다.
+ * - team 과 join 하지 않는다. teamName 조건은 TeamDictionary 로 member.team_id 조건이 되고,
+ *   조회 결과의 teamName 은 TeamDictionary 로 채운다.
+ * - usernamePrefix 는 UsernamePrefix 의 범위 조건(username 인덱스 범위 스캔)이 된다.
+ * - 필드 별 조건식과 파라미터는 FILTERS / parameters 한 곳에 정의하고, MemberColumnScanner 의 SQL 도
+ *   같은 정의에서 만든다. (JPQL 은 엔티티 속성, SQL 은 컬럼 이름만 다르다)
+ */
+@Component
+public class MemberSearchTemplates {
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+    public static final int USERNAME_PREFIX = 1 << 4;
+    public static final int SHAPES = 1 << 5;
+    // SearchCountCache 에서 count() 결과를 구분하는 이름
+    public static final String COUNT_QUERY = "MemberSearchTemplates.count";
+
+    private static final String DTO_SELECT =
+            "select new study.querydsl.dto.MemberTeamDto(m.id, m.username, m.age, m.team.id) from MemberEntity m";
+    private static final String ENTITY_SELECT = "select m from MemberEntity m";
+
+    // Sort 로 허용하는 속성 -> JPQL 경로
+    private static final Map<String, String> SORT_PROPERTIES = Map.of(
+            "id", "m.id",
+            "username", "m.username",
+            "age", "m.age"
+    );
+
+    // {} 자리에 JPQL 은 m.속성, SQL 은 컬럼 이름이 들어간다.
+    private static final Filter[] FILTERS = {
+            new Filter(USERNAME, "username", "username", "{} = :username"),
+            new Filter(TEAM_NAME, "team.id", "team_id", "{} in (:teamIds)"),
+            new Filter(AGE_GOE, "age", "age", "{} >= :ageGoe"),
+            new Filter(AGE_LOE, "age", "age", "{} <= :ageLoe"),
+            new Filter(USERNAME_PREFIX, "username", "username", "{} >= :usernameFrom and {} < :usernameTo")
+    };
+
+    private static final String[] DTO_CONTENT = new String[SHAPES];
+    private static final String[] ENTITY_CONTENT = new String[SHAPES];
+    private static final String[] COUNT = new String[SHAPES];
+    private static final String[] SQL_WHERE = new String[SHAPES];
+
+    static {
+        for (int shape = 0; shape < SHAPES; shape++) {
+            String where = where(shape, false);
+            DTO_CONTENT[shape] = DTO_SELECT + where;
+            ENTITY_CONTENT[shape] = ENTITY_SELECT + where;
+            COUNT[shape] = "select count(m.id) from MemberEntity m" + where;
+            SQL_WHERE[shape] = where(shape, true);
+        }
+    }
+
+    private final TeamDictionary teamDictionary;
+
+    public MemberSearchTemplates(TeamDictionary teamDictionary) {
+        this.teamDictionary = teamDictionary;
+    }
+
+    public static int shapeOf(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalize();
+        int shape = 0;
+        if (normalized.getUsername() != null) {
+            shape |= USERNAME;
+        }
+        if (normalized.getTeamName() != null) {
+            shape |= TEAM_NAME;
+        }
+        if (normalized.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (normalized.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        if (normalized.getUsernamePrefix() != null) {
+            shape |= USERNAME_PREFIX;
+        }
+        return shape;
+    }
+
+    /**
+     * search 가 shape 별로 실행하는 JPQL (파라미터 순서: username, teamIds, ageGoe, ageLoe, usernameFrom, usernameTo)
+     */
+    public static String searchJpql(int shape) {
+        return DTO_CONTENT[shape];
+    }
+
+    /**
+     * member 테이블 SQL 용 where 절 (named 파라미터는 parameters 와 같다)
+     */
+    static String sqlWhere(int shape) {
+        return SQL_WHERE[shape];
+    }
+
+    /**
+     * shape 의 조건에 바인딩할 named 파라미터 (JPQL, SQL 공통)
+     */
+    static Map<String, Object> parameters(MemberSearchCondition normalized, List<Long> teamIds) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (normalized.getUsername() != null) {
+            parameters.put("username", normalized.getUsername());
+        }
+        if (teamIds != null) {
+            parameters.put("teamIds", teamIds);
+        }
+        if (normalized.getAgeGoe() != null) {
+            parameters.put("ageGoe", normalized.getAgeGoe());
+        }
+        if (normalized.getAgeLoe() != null) {
+            parameters.put("ageLoe", normalized.getAgeLoe());
+        }
+        if (normalized.getUsernamePrefix() != null) {
+            parameters.put("usernameFrom", normalized.getUsernamePrefix());
+            parameters.put("usernameTo", UsernamePrefix.upperBound(normalized.getUsernamePrefix()));
+        }
+        return parameters;
+    }
+
+    public List<MemberTeamDto> search(EntityManager em, MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalize();
+        List<Long> teamIds = teamIds(normalized);
+        if (teamIds != null && teamIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return teamDictionary.fillTeamNames(dtoQuery(em, normalized, teamIds).getResultList());
+    }
+
+    /**
+     * 기존 searchPageComplex 와 동일하게 Pageable 의 Sort 는 적용하지 않는다.
+     */
+    public List<MemberTeamDto> searchPage(EntityManager em, MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = condition.normalize();
+        List<Long> teamIds = teamIds(normalized);
+        if (teamIds != null && teamIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<MemberTeamDto> content = dtoQuery(em, normalized, teamIds)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return teamDictionary.fillTeamNames(content);
+    }
+
+    public List<MemberEntity> memberPage(EntityManager em, MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = condition.normalize();
+        List<Long> teamIds = teamIds(normalized);
+        if (teamIds != null && teamIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String jpql = ENTITY_CONTENT[shapeOf(normalized)] + orderBy(pageable.getSort());
+        TypedQuery<MemberEntity> query = em.createQuery(jpql, MemberEntity.class);
+        return bind(query, normalized, teamIds)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    public long count(EntityManager em, MemberSearchCondition condition) {
+        MemberSearchCondition normalized = condition.normalize();
+        List<Long> teamIds = teamIds(normalized);
+        if (teamIds != null && teamIds.isEmpty()) {
+            return 0L;
+        }
+        TypedQuery<Long> query = em.createQuery(COUNT[shapeOf(normalized)], Long.class);
+        return bind(query, normalized, teamIds).getSingleResult();
+    }
+
+    /**
+     * @return teamName 조건이 없으면 null, 존재하지 않는 팀이면 빈 목록
+     */
+    private List<Long> teamIds(MemberSearchCondition normalized) {
+        return (normalized.getTeamName() != null) ? teamDictionary.teamIds(normalized.getTeamName()) : null;
+    }
+
+    private static TypedQuery<MemberTeamDto> dtoQuery(EntityManager em, MemberSearchCondition normalized,
+                                                      List<Long> teamIds) {
+        TypedQuery<MemberTeamDto> query = em.createQuery(DTO_CONTENT[shapeOf(normalized)], MemberTeamDto.class);
+        return bind(query, normalized, teamIds);
+    }
+
+    private static <T> TypedQuery<T> bind(TypedQuery<T> query, MemberSearchCondition normalized, List<Long> teamIds) {
+        parameters(normalized, teamIds).forEach(query::setParameter);
+        return query;
+    }
+
+    private static String where(int shape, boolean sql) {
+        StringBuilder where = new StringBuilder();
+        for (Filter filter : FILTERS) {
+            if ((shape & filter.flag) != 0) {
+                where.append(where.length() == 0 ? " where " : " and ")
+                     .append(sql ? filter.sql : filter.jpql);
+            }
+        }
+        return where.toString();
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Order order : sort) {
+            String path = SORT_PROPERTIES.get(order.getProperty());
+            if (path == null) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+            orderBy.append(orderBy.length() == 0 ? " order by " : ", ")
+                   .append(path)
+                   .append(order.isAscending() ? " asc" : " desc");
+        }
+        return orderBy.toString();
+    }
+
+    private static final class Filter {
+        private final int flag;
+        private final String jpql;
+        private final String sql;
+
+        private Filter(int flag, String property, String column, String predicate) {
+            this.flag = flag;
+            this.jpql = predicate.replace("{}", "m." + property);
+            this.sql = predicate.replace("{}", column);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package study.querydsl.repository.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.QueryTimeoutException;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 페이징의 Content Query 와 Count Query 를 동시에 실행한다. (opt-in: member.parallel-count.enabled)
+ * - Count Query 는 별도의 읽기 전용 EntityManager(별도 커넥션)에서 제한된 크기의 스레드 풀로 실행한다.
+ * - 다음의 경우에는 기존처럼 순차 실행한다.
+ *   1. 쓰기 트랜잭션 안 (별도 커넥션에서는 커밋되지 않은 변경이 보이지 않는다)
+ *   2. 커넥션 풀에 여유가 없을 때 (대기 스레드가 있거나 유휴 커넥션이 min-idle-connections 미만)
+ *   3. 스레드 풀 작업 큐가 가득 찼을 때
+ * - Content 결과로 전체 건수를 알 수 있어 Count Query 가 필요 없으면(PageableExecutionUtils) 작업을 취소한다.
+ *   아직 시작하지 않았으면 실행하지 않고, 실행 중이면 JDBC Statement 를 cancel 한다.
+ * - Count Query 결과는 timeout 까지만 기다리고, 넘으면 취소하고 QueryTimeoutException 을 던진다.
+ * - 동시 실행으로 절약한 시간은 querydsl.pagination.overlap.saved 로 기록한다.
+ */
+@Component
+public class ParallelCountExecutor implements DisposableBean {
+    private final boolean enabled;
+    private final int minIdleConnections;
+    private final long timeoutMillis;
+    private final EntityManagerFactory emf;
+    private final HikariDataSource hikariDataSource;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer overlapSaved;
+    private final Counter parallelCount;
+    private final Counter serialCount;
+    private final Counter cancelledCount;
+
+    public ParallelCountExecutor(EntityManagerFactory emf,
+                                 DataSource dataSource,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${member.parallel-count.enabled:false}") boolean enabled,
+                                 @Value("${member.parallel-count.threads:4}") int threads,
+                                 @Value("${member.parallel-count.queue-capacity:32}") int queueCapacity,
+                                 @Value("${member.parallel-count.min-idle-connections:2}") int minIdleConnections,
+                                 @Value("${member.parallel-count.timeout:10s}") Duration timeout) {
+        this.enabled = enabled;
+        this.minIdleConnections = minIdleConnections;
+        this.timeoutMillis = timeout.toMillis();
+        this.emf = emf;
+        this.hikariDataSource = unwrapHikari(dataSource);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreadFactory());
+
+        this.overlapSaved = Timer.builder("querydsl.pagination.overlap.saved")
+                                 .description("Time saved by running content and count queries concurrently")
+                                 .register(meterRegistry);
+        this.parallelCount = Counter.builder("querydsl.pagination.count")
+                                    .tag("mode", "parallel")
+                                    .register(meterRegistry);
+        this.serialCount = Counter.builder("querydsl.pagination.count")
+                                  .tag("mode", "serial")
+                                  .register(meterRegistry);
+        this.cancelledCount = Counter.builder("querydsl.pagination.count")
+                                     .tag("mode", "cancelled")
+                                     .register(meterRegistry);
+    }
+
+    /**
+     * @param contentQuery 호출한 스레드의 EntityManager 에서 실행할 Content Query
+     * @param countQuery    전달받은 EntityManager 로 전체 건수를 구하는 함수
+     * @param entityManager 순차 실행 시 사용할 호출한 스레드의 EntityManager
+     * @param countListener Count Query 결과가 페이지에 사용된 경우에만 호출된다. (취소/생략된 Count Query 는 호출되지 않음)
+     */
+    public <T> Page<T> getPage(Pageable pageable,
+                               Supplier<List<T>> contentQuery,
+                               ToLongFunction<EntityManager> countQuery,
+                               EntityManager entityManager,
+                               CountListener countListener) {
+        if (!canRunConcurrently()) {
+            return serial(pageable, contentQuery, countQuery, entityManager, countListener);
+        }
+
+        CountTask countTask = new CountTask(countQuery);
+        CompletableFuture<Long> countFuture;
+        long start = System.nanoTime();
+        try {
+            countFuture = CompletableFuture.supplyAsync(countTask::run, executor);
+        } catch (RejectedExecutionException e) {
+            return serial(pageable, contentQuery, countQuery, entityManager, countListener);
+        }
+        parallelCount.increment();
+
+        List<T> content;
+        try {
+            content = contentQuery.get();
+        } catch (RuntimeException e) {
+            cancel(countFuture, countTask);
+            throw e;
+        }
+        long contentElapsed = System.nanoTime() - start;
+
+        AtomicBoolean countUsed = new AtomicBoolean();
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            countUsed.set(true);
+            long total = await(countFuture, countTask);
+            countListener.countUsed(countTask.elapsedNanos);
+            return total;
+        });
+        if (!countUsed.get()) {
+            cancel(countFuture, countTask);
+            return page;
+        }
+        long wall = System.nanoTime() - start;
+        long saved = contentElapsed + countTask.elapsedNanos - wall;
+        overlapSaved.record(Duration.ofNanos(Math.max(saved, 0)));
+        return page;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> Page<T> serial(Pageable pageable,
+                               Supplier<List<T>> contentQuery,
+                               ToLongFunction<EntityManager> countQuery,
+                               EntityManager entityManager,
+                               CountListener countListener) {
+        serialCount.increment();
+        List<T> content = contentQuery.get();
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            long start = System.nanoTime();
+            long total = countQuery.applyAsLong(entityManager);
+            countListener.countUsed(System.nanoTime() - start);
+            return total;
+        });
+    }
+
+    private long await(CompletableFuture<Long> countFuture, CountTask countTask) {
+        try {
+            return countFuture.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancel(countFuture, countTask);
+            throw new QueryTimeoutException("Count query did not finish in " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            cancel(countFuture, countTask);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for count query", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Count query failed", e.getCause());
+        }
+    }
+
+    private void cancel(CompletableFuture<Long> countFuture, CountTask countTask) {
+        cancelledCount.increment();
+        // 아직 시작하지 않은 작업은 실행되지 않는다.
+        countFuture.cancel(false);
+        countTask.cancel();
+    }
+
+    @FunctionalInterface
+    public interface CountListener {
+        /**
+         * @param elapsedNanos Count Query 실행 시간 (대기 시간 제외)
+         */
+        void countUsed(long elapsedNanos);
+    }
+
+    /**
+     * 별도의 읽기 전용 EntityManager 에서 실행하는 Count Query
+     */
+    private final class CountTask {
+        private final ToLongFunction<EntityManager> countQuery;
+        private final AtomicReference<Session> running = new AtomicReference<>();
+        private volatile boolean cancelled;
+        private volatile long elapsedNanos;
+
+        private CountTask(ToLongFunction<EntityManager> countQuery) {
+            this.countQuery = countQuery;
+        }
+
+        long run() {
+            long start = System.nanoTime();
+            EntityManager em = emf.createEntityManager();
+            try {
+                Session session = em.unwrap(Session.class);
+                session.setDefaultReadOnly(true);
+                session.setHibernateFlushMode(FlushMode.MANUAL);
+                running.set(session);
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+                return countQuery.applyAsLong(em);
+            } finally {
+                running.set(null);
+                em.close();
+                elapsedNanos = System.nanoTime() - start;
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            Session session = running.get();
+            if (session != null) {
+                try {
+                    session.cancelQuery();
+                } catch (RuntimeException e) {
+                    // 이미 끝났거나 취소할 Statement 가 없음
+                }
+            }
+        }
+    }
+
+    private boolean canRunConcurrently() {
+        if (!enabled) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        return !isPoolUnderPressure();
+    }
+
+    private boolean isPoolUnderPressure() {
+        if (hikariDataSource == null) {
+            return false;
+        }
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            // 아직 풀이 시작되지 않음
+            return false;
+        }
+        return pool.getThreadsAwaitingConnection() > 0 || pool.getIdleConnections() < minIdleConnections;
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "count-query-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
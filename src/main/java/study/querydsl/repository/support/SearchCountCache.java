@@ -0,0 +1,89 @@
+package study.querydsl.repository.support;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 검색의 전체 건수(Count Query 결과) 캐시
+ * - 키: Count Query 이름 + 정규화된 MemberSearchCondition (같은 조건으로 페이지만 넘기는 경우 Count Query 를 재사용)
+ *   같은 조건이라도 Count Query 가 다르면 건수가 다를 수 있으므로 이름으로 구분한다.
+ * - TTL 과 최대 크기로 제한하고, Member/Team 변경이 커밋되면 전부 무효화한다.
+ *   무효화 전에 시작한 Count Query 의 결과가 무효화 후에 저장되지 않도록 키에 세대(generation)를 포함한다.
+ * - 쓰기 트랜잭션 안에서는 커밋되지 않은 변경이 반영된 건수일 수 있으므로 캐시를 사용하지 않는다.
+ * - hit/miss 는 cache.gets{cache=memberSearchCount} 메트릭으로 노출된다.
+ */
+@Component
+public class SearchCountCache {
+    private final boolean enabled;
+    private final AsyncCache<Key, Long> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchCountCache(MeterRegistry meterRegistry,
+                            @Value("${member.count-cache.enabled:true}") boolean enabled,
+                            @Value("${member.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${member.count-cache.maximum-size:10000}") long maximumSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                             .expireAfterWrite(ttl)
+                             .maximumSize(maximumSize)
+                             .recordStats()
+                             .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "memberSearchCount");
+    }
+
+    /**
+     * @param query Count Query 이름 (예: MemberRepository.searchPageSimple)
+     */
+    public long get(String query, MemberSearchCondition condition, LongSupplier countQuery) {
+        if (!enabled || isReadWriteTransaction()) {
+            return countQuery.getAsLong();
+        }
+        Key key = new Key(generation.get(), query, condition.normalize());
+        return CallerRunsCacheLoader.get(cache, key, countQuery::getAsLong);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.synchronous().invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        invalidateAll();
+    }
+
+    private boolean isReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+        private final long generation;
+        private final String query;
+        private final MemberSearchCondition condition;
+
+        private Key(long generation, String query, MemberSearchCondition condition) {
+            this.generation = generation;
+            this.query = query;
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 메트릭 (/actuator/prometheus, /actuator/metrics)
+ * - querydsl.search{method, shape, phase=content|count}: Content/Count Query 실행 시간 (히스토그램)
+ * - querydsl.search.rows{method, shape}: Content Query 결과 건수
+ * - querydsl.search.count.requests{method, shape, outcome=executed|skipped}: 페이징 시 Count Query 실행/생략 건수
+ * - shape 태그는 값이 있는 조건 필드 이름 (예: "teamName+ageGoe", 조건이 없으면 "none") 이므로 최대 32 가지
+ */
+@Component
+public class SearchMetrics {
+    private static final String[] SHAPE_TAGS = new String[MemberSearchTemplates.SHAPES];
+
+    static {
+        for (int shape = 0; shape < MemberSearchTemplates.SHAPES; shape++) {
+            SHAPE_TAGS[shape] = shapeTag(shape);
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    public SearchMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> List<T> content(String method, MemberSearchCondition condition, Supplier<List<T>> contentQuery) {
+        String shape = shapeOf(condition);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<T> content;
+        try {
+            content = contentQuery.get();
+        } finally {
+            sample.stop(timer(method, shape, "content"));
+        }
+        DistributionSummary.builder("querydsl.search.rows")
+                           .tag("method", method)
+                           .tag("shape", shape)
+                           .publishPercentileHistogram()
+                           .register(meterRegistry)
+                           .record(content.size());
+        return content;
+    }
+
+    /**
+     * 항상 실행되는 Count Query
+     */
+    public long count(String method, MemberSearchCondition condition, LongSupplier countQuery) {
+        String shape = shapeOf(condition);
+        countRequests(method, shape, "executed").increment();
+        return timeCount(method, shape, countQuery);
+    }
+
+    /**
+     * PageableExecutionUtils 로 필요한 경우만 Count Query 를 실행하는 페이징
+     */
+    public <T> Page<T> page(String method, MemberSearchCondition condition, Pageable pageable,
+                            List<T> content, LongSupplier countQuery) {
+        CountProbe probe = countProbe(method, condition);
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> probe.count(countQuery));
+        probe.finish();
+        return page;
+    }
+
+    /**
+     * Count Query 를 직접 넘기기 어려운 경우(ParallelCountExecutor) probe 를 CountListener 로 넘기고,
+     * 페이지를 만든 뒤 probe.finish 로 실행/생략 여부를 기록한다.
+     * - 실행 여부는 Count Query 결과가 페이지에 사용되었는지로 판단한다. (미리 시작했다가 취소된 Count Query 는 skipped)
+     */
+    public CountProbe countProbe(String method, MemberSearchCondition condition) {
+        return new CountProbe(method, shapeOf(condition));
+    }
+
+    public static String shapeOf(MemberSearchCondition condition) {
+        return SHAPE_TAGS[MemberSearchTemplates.shapeOf(condition)];
+    }
+
+    private long timeCount(String method, String shape, LongSupplier countQuery) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return countQuery.getAsLong();
+        } finally {
+            sample.stop(timer(method, shape, "count"));
+        }
+    }
+
+    private Timer timer(String method, String shape, String phase) {
+        return Timer.builder("querydsl.search")
+                    .tag("method", method)
+                    .tag("shape", shape)
+                    .tag("phase", phase)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+    }
+
+    public class CountProbe implements ParallelCountExecutor.CountListener {
+        private final String method;
+        private final String shape;
+        private final AtomicBoolean executed = new AtomicBoolean();
+
+        private CountProbe(String method, String shape) {
+            this.method = method;
+            this.shape = shape;
+        }
+
+        /**
+         * 결과가 바로 사용되는 Count Query 실행
+         */
+        public long count(LongSupplier countQuery) {
+            executed.set(true);
+            return timeCount(method, shape, countQuery);
+        }
+
+        /**
+         * 다른 곳에서 실행한 Count Query 의 결과가 사용됨
+         */
+        @Override
+        public void countUsed(long elapsedNanos) {
+            executed.set(true);
+            timer(method, shape, "count").record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void finish() {
+            countRequests(method, shape, executed.get() ? "executed" : "skipped").increment();
+        }
+    }
+
+    private Counter countRequests(String method, String shape, String outcome) {
+        return Counter.builder("querydsl.search.count.requests")
+                      .tag("method", method)
+                      .tag("shape", shape)
+                      .tag("outcome", outcome)
+                      .register(meterRegistry);
+    }
+
+    private static String shapeTag(int shape) {
+        StringBuilder tag = new StringBuilder();
+        appendIf(tag, shape, MemberSearchTemplates.USERNAME, "username");
+        appendIf(tag, shape, MemberSearchTemplates.TEAM_NAME, "teamName");
+        appendIf(tag, shape, MemberSearchTemplates.AGE_GOE, "ageGoe");
+        appendIf(tag, shape, MemberSearchTemplates.AGE_LOE, "ageLoe");
+        appendIf(tag, shape, MemberSearchTemplates.USERNAME_PREFIX, "usernamePrefix");
+        return tag.length() == 0 ? "none" : tag.toString();
+    }
+
+    private static void appendIf(StringBuilder tag, int shape, int flag, String name) {
+        if ((shape & flag) != 0) {
+            tag.append(tag.length() == 0 ? "" : "+").append(name);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 검색 조건 모양(shape) 별 실행 계획 점검 (H2 EXPLAIN 기준)
+ * - MemberSearchTemplates 의 JPQL 을 Hibernate 로 SQL 로 변환한 뒤 EXPLAIN 을 실행하고,
+ *   member 테이블 접근에 사용된 인덱스와 전체 스캔(tableScan) 여부를 알려준다.
+ * - 조건이 없는 shape 0 은 원래 전체 조회이므로 전체 스캔이어도 문제로 보지 않는다.
+ */
+@Component
+public class SearchPlanInspector {
+    // H2: /* PUBLIC.IDX_MEMBER_USERNAME: USERNAME = ?1 */, /* PUBLIC.MEMBER.tableScan */
+    private static final Pattern ACCESS_PATH = Pattern.compile("/\\* PUBLIC\\.([A-Z0-9_.]+?)(\\.tableScan)?(: [^*]*)? \\*/");
+    private static final String SAMPLE_USERNAME = "member1";
+    private static final long SAMPLE_TEAM_ID = 1L;
+    private static final int SAMPLE_AGE_GOE = 20;
+    private static final int SAMPLE_AGE_LOE = 30;
+    private static final String SAMPLE_USERNAME_PREFIX = "member1";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchPlanInspector(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<SearchPlan> inspectAll() {
+        List<SearchPlan> plans = new ArrayList<>();
+        for (int shape = 0; shape < MemberSearchTemplates.SHAPES; shape++) {
+            plans.add(inspect(shape));
+        }
+        return plans;
+    }
+
+    public SearchPlan inspect(int shape) {
+        String sql = toSql(MemberSearchTemplates.searchJpql(shape));
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, sampleParameters(shape));
+        return new SearchPlan(shape, sql, plan);
+    }
+
+    private String toSql(String jpql) {
+        return sessionFactory.getQueryPlanCache()
+                             .getHQLQueryPlan(jpql, false, Collections.emptyMap())
+                             .getSqlStrings()[0];
+    }
+
+    /**
+     * MemberSearchTemplates 의 where 절 순서와 같다.
+     */
+    private static Object[] sampleParameters(int shape) {
+        List<Object> parameters = new ArrayList<>();
+        if ((shape & MemberSearchTemplates.USERNAME) != 0) {
+            parameters.add(SAMPLE_USERNAME);
+        }
+        if ((shape & MemberSearchTemplates.TEAM_NAME) != 0) {
+            parameters.add(SAMPLE_TEAM_ID);
+        }
+        if ((shape & MemberSearchTemplates.AGE_GOE) != 0) {
+            parameters.add(SAMPLE_AGE_GOE);
+        }
+        if ((shape & MemberSearchTemplates.AGE_LOE) != 0) {
+            parameters.add(SAMPLE_AGE_LOE);
+        }
+        if ((shape & MemberSearchTemplates.USERNAME_PREFIX) != 0) {
+            parameters.add(SAMPLE_USERNAME_PREFIX);
+            parameters.add(UsernamePrefix.upperBound(SAMPLE_USERNAME_PREFIX));
+        }
+        return parameters.toArray();
+    }
+
+    @Getter
+    public static class SearchPlan {
+        private final int shape;
+        private final List<String> conditions;
+        private final String sql;
+        private final String plan;
+        private final String index;
+        private final boolean fullScan;
+        private final boolean regression;
+
+        SearchPlan(int shape, String sql, String plan) {
+            this.shape = shape;
+            this.conditions = conditions(shape);
+            this.sql = sql;
+            this.plan = plan;
+
+            Matcher matcher = ACCESS_PATH.matcher(plan);
+            boolean found = matcher.find();
+            this.fullScan = !found || matcher.group(2) != null;
+            this.index = (found && !fullScan) ? matcher.group(1) : null;
+            this.regression = fullScan && shape != 0;
+        }
+
+        private static List<String> conditions(int shape) {
+            List<String> conditions = new ArrayList<>();
+            if ((shape & MemberSearchTemplates.USERNAME) != 0) {
+                conditions.add("username");
+            }
+            if ((shape & MemberSearchTemplates.TEAM_NAME) != 0) {
+                conditions.add("teamName");
+            }
+            if ((shape & MemberSearchTemplates.AGE_GOE) != 0) {
+                conditions.add("ageGoe");
+            }
+            if ((shape & MemberSearchTemplates.AGE_LOE) != 0) {
+                conditions.add("ageLoe");
+            }
+            if ((shape & MemberSearchTemplates.USERNAME_PREFIX) != 0) {
+                conditions.add("usernamePrefix");
+            }
+            return conditions;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package study.querydsl.repository.support;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 결과 캐시
+ * - 키: 검색 종류 + 정규화된 MemberSearchCondition + Pageable
+ * - 같은 키의 동시 miss 는 한 번만 조회하고 나머지는 그 결과를 기다린다.
+ *   조회는 캐시 맵 잠금 밖의 호출 스레드에서 실행한다. (CallerRunsCacheLoader)
+ * - Member/Team 변경이 커밋되면(MemberDataChangedEvent) 전부 무효화한다.
+ *   무효화 전에 시작한 조회의 결과가 무효화 후에 저장되지 않도록 키에 세대(generation)를 포함한다.
+ * - 쓰기 트랜잭션 안에서는 커밋되지 않은 변경이 있을 수 있으므로 캐시를 사용하지 않는다.
+ * - 캐시된 결과는 여러 요청이 공유하므로 수정하면 안 된다.
+ * - hit/miss/eviction 은 cache.gets, cache.evictions{cache=memberSearchResult} 메트릭으로 노출된다.
+ */
+@Component
+public class SearchResultCache {
+    private final boolean enabled;
+    private final AsyncCache<Key, Object> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             @Value("${member.result-cache.enabled:true}") boolean enabled,
+                             @Value("${member.result-cache.ttl:10s}") Duration ttl,
+                             @Value("${member.result-cache.maximum-size:1000}") long maximumSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                             .expireAfterWrite(ttl)
+                             .maximumSize(maximumSize)
+                             .recordStats()
+                             .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "memberSearchResult");
+    }
+
+    public List<MemberTeamDto> list(String method, MemberSearchCondition condition,
+                                    Supplier<List<MemberTeamDto>> search) {
+        return get(method, condition, null, search);
+    }
+
+    public Page<MemberTeamDto> page(String method, MemberSearchCondition condition, Pageable pageable,
+                                    Supplier<Page<MemberTeamDto>> search) {
+        return get(method, condition, pageable, search);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.synchronous().invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        invalidateAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String method, MemberSearchCondition condition, Pageable pageable, Supplier<T> search) {
+        if (!enabled || isReadWriteTransaction()) {
+            return search.get();
+        }
+        Key key = new Key(generation.get(), method, condition.normalize(), pageable);
+        return (T) CallerRunsCacheLoader.get(cache, key, search::get);
+    }
+
+    private boolean isReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+        private final long generation;
+        private final String method;
+        private final MemberSearchCondition condition;
+        private final Pageable pageable;
+
+        private Key(long generation, String method, MemberSearchCondition condition, Pageable pageable) {
+            this.generation = generation;
+            this.method = method;
+            this.condition = condition;
+            this.pageable = pageable;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.TeamEntity;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMemberEntity.memberEntity;
+
+/**
+ * 팀 식별자 <-> 팀 이름 메모리 사전
+ * - 팀은 건수가 적은 차원(dimension) 테이블이므로 전부 메모리에 올려두고,
+ *   회원 검색에서 team join 대신 teamName 조건을 member.team_id 조건으로 바꾸고, 조회 후 팀 이름을 채운다.
+ * - 팀 변경이 커밋되면(MemberDataChangedEvent) 다음 조회 시 다시 읽어오며, refresh-interval 마다도 다시 읽는다.
+ *   (다른 인스턴스의 변경 반영)
+ * - 쓰기 트랜잭션 안에서는 커밋되지 않은 팀 변경이 있을 수 있으므로 사전 대신 team 테이블을 직접 조회한다.
+ * - 사전에 없는 팀 이름은 team 테이블에서 다시 확인하고, 그래도 없으면 miss-ttl 동안만 "없음" 으로 기억한다.
+ */
+@Component
+public class TeamDictionary {
+    private static final int MAX_MISSING_NAMES = 1_000;
+
+    private final EntityManager em;
+    private final long refreshIntervalNanos;
+    private volatile Snapshot snapshot;
+    // refresh() 마다 증가, 읽는 도중 변경이 커밋되면 읽은 결과를 보관하지 않는다.
+    private final AtomicLong version = new AtomicLong();
+    // 존재하지 않는 팀 이름 -> 만료 시각(nanoTime), 없는 팀으로 반복 검색할 때 매번 DB 를 조회하지 않도록
+    private final Map<String, Long> missingNames = new ConcurrentHashMap<>();
+    private final long missTtlNanos;
+
+    public TeamDictionary(EntityManager em,
+                          @Value("${member.team-dictionary.refresh-interval:1m}") Duration refreshInterval,
+                          @Value("${member.team-dictionary.miss-ttl:5s}") Duration missTtl) {
+        this.em = em;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.missTtlNanos = missTtl.toNanos();
+    }
+
+    /**
+     * 팀 이름에 해당하는 팀 식별자 (팀 이름은 유일하지 않으므로 여러 개일 수 있다)
+     */
+    public List<Long> teamIds(String teamName) {
+        if (isReadWriteTransaction()) {
+            return loadIds(teamName);
+        }
+        List<Long> teamIds = snapshot().idsByName.get(teamName);
+        if (teamIds != null) {
+            return teamIds;
+        }
+        // 사전에 없는 이름(다른 인스턴스에서 방금 추가된 팀 등)
+        Long missExpiresAt = missingNames.get(teamName);
+        if (missExpiresAt != null && System.nanoTime() - missExpiresAt < 0) {
+            return Collections.emptyList();
+        }
+        teamIds = loadIds(teamName);
+        if (teamIds.isEmpty()) {
+            if (missingNames.size() >= MAX_MISSING_NAMES) {
+                missingNames.clear();
+            }
+            missingNames.put(teamName, System.nanoTime() + missTtlNanos);
+        } else {
+            missingNames.remove(teamName);
+        }
+        return teamIds;
+    }
+
+    /**
+     * Querydsl 용 teamName 조건: team join 없이 member.team_id 로 비교한다.
+     */
+    public BooleanExpression teamNameEq(String teamName) {
+        if (!hasText(teamName)) {
+            return null;
+        }
+        List<Long> teamIds = teamIds(teamName);
+        // 존재하지 않는 팀 -> 항상 거짓 (식별자는 null 이 될 수 없다)
+        return teamIds.isEmpty() ? memberEntity.id.isNull() : memberEntity.team.id.in(teamIds);
+    }
+
+    /**
+     * 조회 결과의 teamId 로 teamName 을 채운다.
+     */
+    public List<MemberTeamDto> fillTeamNames(List<MemberTeamDto> members) {
+        Set<Long> teamIds = new HashSet<>();
+        for (MemberTeamDto member : members) {
+            if (member.getTeamId() != null) {
+                teamIds.add(member.getTeamId());
+            }
+        }
+        Map<Long, String> names = teamNames(teamIds);
+        for (MemberTeamDto member : members) {
+            fillTeamName(member, names);
+        }
+        return members;
+    }
+
+    public MemberTeamDto fillTeamName(MemberTeamDto member, Map<Long, String> names) {
+        if (member.getTeamId() != null) {
+            member.setTeamName(names.get(member.getTeamId()));
+        }
+        return member;
+    }
+
+    /**
+     * 사전에 없는 식별자(다른 인스턴스에서 방금 추가된 팀 등)는 team 테이블에서 조회한다.
+     */
+    public Map<Long, String> teamNames(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (isReadWriteTransaction()) {
+            return loadNames(teamIds);
+        }
+        Map<Long, String> namesById = snapshot().namesById;
+        List<Long> missing = new ArrayList<>();
+        for (Long teamId : teamIds) {
+            if (!namesById.containsKey(teamId)) {
+                missing.add(teamId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return namesById;
+        }
+        Map<Long, String> names = new HashMap<>(namesById);
+        names.putAll(loadNames(missing));
+        return names;
+    }
+
+    public void refresh() {
+        version.incrementAndGet();
+        snapshot = null;
+        missingNames.clear();
+    }
+
+    @EventListener
+    public void onMemberDataChanged(MemberDataChangedEvent event) {
+        if (event.getEntityType() == TeamEntity.class) {
+            refresh();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.loadedAt < refreshIntervalNanos) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || System.nanoTime() - current.loadedAt >= refreshIntervalNanos) {
+                long loadingVersion = version.get();
+                current = load();
+                if (version.get() == loadingVersion) {
+                    snapshot = current;
+                }
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load() {
+        List<Object[]> rows = em.createQuery("select t.id, t.name from TeamEntity t", Object[].class)
+                                .getResultList();
+        Map<Long, String> namesById = new HashMap<>();
+        Map<String, List<Long>> idsByName = new HashMap<>();
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            String name = (String) row[1];
+            namesById.put(id, name);
+            idsByName.computeIfAbsent(name, key -> new ArrayList<>()).add(id);
+        }
+        return new Snapshot(Collections.unmodifiableMap(namesById), Collections.unmodifiableMap(idsByName));
+    }
+
+    private List<Long> loadIds(String teamName) {
+        return em.createQuery("select t.id from TeamEntity t where t.name = :name", Long.class)
+                 .setParameter("name", teamName)
+                 .getResultList();
+    }
+
+    private Map<Long, String> loadNames(Collection<Long> teamIds) {
+        Map<Long, String> names = new HashMap<>();
+        List<Object[]> rows = em.createQuery("select t.id, t.name from TeamEntity t where t.id in (:ids)", Object[].class)
+                                .setParameter("ids", teamIds)
+                                .getResultList();
+        for (Object[] row : rows) {
+            names.put((Long) row[0], (String) row[1]);
+        }
+        return names;
+    }
+
+    private boolean isReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, String> namesById;
+        private final Map<String, List<Long>> idsByName;
+        private final long loadedAt = System.nanoTime();
+
+        private Snapshot(Map<Long, String> namesById, Map<String, List<Long>> idsByName) {
+            this.namesById = namesById;
+            this.idsByName = idsByName;
+        }
+    }
+}
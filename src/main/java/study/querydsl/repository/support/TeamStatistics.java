@@ -0,0 +1,403 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydsl.entity.QMemberEntity.memberEntity;
+
+/**
+ * 팀별 나이 통계(count, sum, avg, max, min)를 메모리에서 증분으로 유지한다.
+ * - MemberEntity 의 insert / update(나이 변경, changeTeam) / delete 가 커밋되면 이전/이후 상태로 통계를 고친다.
+ * - 팀별로 나이 -> 인원 수 히스토그램을 가지고 있으므로 삭제/이동이 있어도 max, min 이 정확하다.
+ * - 조회 비용은 회원 수가 아니라 팀 수(x 서로 다른 나이 수)에 비례한다.
+ * - 이벤트가 발생하지 않는 벌크 수정/JDBC 경로는 requestReconcile() 을 호출하고,
+ *   member 테이블 전체 집계로 다시 맞추는 reconcile 은 요청이 있거나 reconcile-interval 마다 실행된다.
+ * - 집계 쿼리 전에 커밋됐지만 커밋 이벤트가 교체 후에 반영되면 두 번 더해진다.
+ *   교체 후 confirm-delay 안에 반영된 이벤트가 있으면 확인용 reconcile 을 한 번 더 실행한다.
+ * - 메트릭: team.stats.staleness(마지막 reconcile 이후 경과 초), team.stats.drift(reconcile 시 값이 달랐던 팀 수),
+ *   team.stats.events{type}
+ */
+@Slf4j
+@Component
+public class TeamStatistics implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final TeamDictionary teamDictionary;
+    private final long reconcileIntervalMillis;
+    private final long confirmDelayMillis;
+
+    private final Map<Long, TeamAggregate> aggregates = new HashMap<>();
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean(true);
+    private final AtomicLong lastReconciledAt = new AtomicLong();
+    private final AtomicLong lastDrift = new AtomicLong();
+    // 반영한 이벤트 수: reconcile 도중 이벤트가 들어왔는지 판단
+    private final AtomicLong appliedEvents = new AtomicLong();
+    // 확인용 reconcile 판단: 교체 시점의 appliedEvents, 확인할 시각(0 이면 없음)
+    private long eventsAtSwap;
+    private long confirmAt;
+
+    private final Counter driftCounter;
+    private final Counter insertEvents;
+    private final Counter updateEvents;
+    private final Counter deleteEvents;
+
+    public TeamStatistics(EntityManagerFactory emf,
+                          TeamDictionary teamDictionary,
+                          MeterRegistry meterRegistry,
+                          @Value("${member.team-stats.reconcile-interval:5m}") Duration reconcileInterval,
+                          @Value("${member.team-stats.confirm-delay:1s}") Duration confirmDelay) {
+        this.emf = emf;
+        this.teamDictionary = teamDictionary;
+        this.reconcileIntervalMillis = reconcileInterval.toMillis();
+        this.confirmDelayMillis = confirmDelay.toMillis();
+
+        meterRegistry.gauge("team.stats.staleness", lastReconciledAt,
+                at -> at.get() == 0 ? Double.NaN : (System.currentTimeMillis() - at.get()) / 1000.0);
+        meterRegistry.gauge("team.stats.last.drift", lastDrift);
+        this.driftCounter = Counter.builder("team.stats.drift").register(meterRegistry);
+        this.insertEvents = Counter.builder("team.stats.events").tag("type", "insert").register(meterRegistry);
+        this.updateEvents = Counter.builder("team.stats.events").tag("type", "update").register(meterRegistry);
+        this.deleteEvents = Counter.builder("team.stats.events").tag("type", "delete").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                                            .getServiceRegistry()
+                                            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * 팀 이름 별 통계 (팀 이름 순)
+     */
+    public List<TeamStatsDto> stats() {
+        if (lastReconciledAt.get() == 0) {
+            reconcile();
+        }
+        Map<Long, TeamAggregate> snapshot = new HashMap<>();
+        synchronized (this) {
+            aggregates.forEach((teamId, aggregate) -> snapshot.put(teamId, aggregate.copy()));
+        }
+
+        // 같은 이름의 팀은 합친다. (group by team.name)
+        Map<Long, String> names = teamDictionary.teamNames(snapshot.keySet());
+        Map<String, TeamAggregate> byName = new TreeMap<>();
+        snapshot.forEach((teamId, aggregate) -> {
+            String name = names.get(teamId);
+            if (name != null) {
+                byName.computeIfAbsent(name, key -> new TeamAggregate()).merge(aggregate);
+            }
+        });
+
+        List<TeamStatsDto> stats = new ArrayList<>(byName.size());
+        byName.forEach((name, aggregate) -> {
+            if (aggregate.count > 0) {
+                stats.add(new TeamStatsDto(name, aggregate.count, aggregate.sum,
+                        aggregate.ages.lastKey(), aggregate.ages.firstKey()));
+            }
+        });
+        return stats;
+    }
+
+    /**
+     * 이벤트 없이 member 가 변경된 경우(벌크 수정, JDBC) 다음 점검 때 reconcile 하도록 요청한다.
+     */
+    public void requestReconcile() {
+        reconcileRequested.set(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${member.team-stats.check-interval:10s}")
+    public void reconcileIfNeeded() {
+        boolean expired = System.currentTimeMillis() - lastReconciledAt.get() >= reconcileIntervalMillis;
+        if (reconcileRequested.get() || expired) {
+            reconcile();
+        } else if (confirmationNeeded()) {
+            reconcile(true);
+        }
+    }
+
+    /**
+     * member 테이블 전체 집계로 통계를 다시 만들고, 기존 통계와 달랐던 팀 수를 drift 로 기록한다.
+     * - 집계 쿼리와 교체 사이에 반영된 이벤트가 있으면 집계에 포함됐는지 알 수 없으므로 다음 점검 때 다시 맞춘다.
+     */
+    public long reconcile() {
+        return reconcile(false);
+    }
+
+    /**
+     * @param confirming 확인용 reconcile 이면 다시 확인을 예약하지 않는다. (쓰기가 계속되는 동안 반복하지 않도록)
+     */
+    private long reconcile(boolean confirming) {
+        reconcileRequested.set(false);
+        long eventsBefore = appliedEvents.get();
+        Map<Long, TeamAggregate> fresh = loadAggregates();
+        long drift;
+        synchronized (this) {
+            drift = drift(aggregates, fresh);
+            aggregates.clear();
+            aggregates.putAll(fresh);
+            if (appliedEvents.get() != eventsBefore) {
+                requestReconcile();
+            }
+            eventsAtSwap = appliedEvents.get();
+            confirmAt = confirming ? 0 : System.currentTimeMillis() + confirmDelayMillis;
+        }
+        lastReconciledAt.set(System.currentTimeMillis());
+        lastDrift.set(drift);
+        driftCounter.increment(drift);
+        if (drift > 0) {
+            log.info("Team statistics reconciled, {} teams drifted", drift);
+        }
+        return drift;
+    }
+
+    /**
+     * 교체 후 confirm-delay 가 지났고 그 사이 반영된 이벤트가 있으면 true (한 번만)
+     * - 교체 전에 커밋된 변경의 이벤트였다면 이미 집계에 포함되어 두 번 더해졌을 수 있다.
+     */
+    private synchronized boolean confirmationNeeded() {
+        if (confirmAt == 0 || System.currentTimeMillis() < confirmAt) {
+            return false;
+        }
+        confirmAt = 0;
+        return appliedEvents.get() != eventsAtSwap;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!(event.getEntity() instanceof MemberEntity)) {
+            return;
+        }
+        insertEvents.increment();
+        Object[] state = event.getState();
+        EntityPersister persister = event.getPersister();
+        synchronized (this) {
+            add(teamId(state, persister), age(state, persister));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof MemberEntity)) {
+            return;
+        }
+        updateEvents.increment();
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // 이전 상태를 모르는 경우(detached merge 등) 증분 반영 불가
+            requestReconcile();
+            return;
+        }
+        Object[] state = event.getState();
+        EntityPersister persister = event.getPersister();
+        Long oldTeamId = teamId(oldState, persister);
+        int oldAge = age(oldState, persister);
+        Long newTeamId = teamId(state, persister);
+        int newAge = age(state, persister);
+        if (Objects.equals(oldTeamId, newTeamId) && oldAge == newAge) {
+            return;
+        }
+        synchronized (this) {
+            remove(oldTeamId, oldAge);
+            add(newTeamId, newAge);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!(event.getEntity() instanceof MemberEntity)) {
+            return;
+        }
+        deleteEvents.increment();
+        Object[] state = event.getDeletedState();
+        if (state == null) {
+            requestReconcile();
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        synchronized (this) {
+            remove(teamId(state, persister), age(state, persister));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return persister.getMappedClass() == MemberEntity.class;
+    }
+
+    private void add(Long teamId, int age) {
+        appliedEvents.incrementAndGet();
+        if (teamId != null) {
+            aggregates.computeIfAbsent(teamId, key -> new TeamAggregate()).add(age, 1);
+        }
+    }
+
+    private void remove(Long teamId, int age) {
+        appliedEvents.incrementAndGet();
+        if (teamId == null) {
+            return;
+        }
+        TeamAggregate aggregate = aggregates.get(teamId);
+        if (aggregate == null || !aggregate.remove(age)) {
+            // 모르는 행이 삭제됨 -> 통계가 이미 틀어져 있다.
+            requestReconcile();
+            return;
+        }
+        if (aggregate.count == 0) {
+            aggregates.remove(teamId);
+        }
+    }
+
+    private Map<Long, TeamAggregate> loadAggregates() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Session session = em.unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            List<Tuple> rows = new JPAQueryFactory(em)
+                    .select(memberEntity.team.id, memberEntity.age, memberEntity.count())
+                    .from(memberEntity)
+                    .where(memberEntity.team.id.isNotNull())
+                    .groupBy(memberEntity.team.id, memberEntity.age)
+                    .fetch();
+            Map<Long, TeamAggregate> fresh = new HashMap<>();
+            for (Tuple row : rows) {
+                fresh.computeIfAbsent(row.get(memberEntity.team.id), key -> new TeamAggregate())
+                     .add(row.get(memberEntity.age), row.get(memberEntity.count()));
+            }
+            return fresh;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static long drift(Map<Long, TeamAggregate> current, Map<Long, TeamAggregate> fresh) {
+        long drift = 0;
+        for (Map.Entry<Long, TeamAggregate> entry : fresh.entrySet()) {
+            if (!entry.getValue().sameAs(current.get(entry.getKey()))) {
+                drift++;
+            }
+        }
+        for (Long teamId : current.keySet()) {
+            if (!fresh.containsKey(teamId)) {
+                drift++;
+            }
+        }
+        return drift;
+    }
+
+    private static int age(Object[] state, EntityPersister persister) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+
+    private static Long teamId(Object[] state, EntityPersister persister) {
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            // 프록시 초기화 없이 식별자만 꺼낸다.
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((TeamEntity) team).getId();
+    }
+
+    private static final class TeamAggregate {
+        private long count;
+        private long sum;
+        private final TreeMap<Integer, Long> ages = new TreeMap<>();
+
+        private void add(int age, long members) {
+            count += members;
+            sum += (long) age * members;
+            ages.merge(age, members, Long::sum);
+        }
+
+        private boolean remove(int age) {
+            Long members = ages.get(age);
+            if (members == null) {
+                return false;
+            }
+            if (members == 1) {
+                ages.remove(age);
+            } else {
+                ages.put(age, members - 1);
+            }
+            count--;
+            sum -= age;
+            return true;
+        }
+
+        private void merge(TeamAggregate other) {
+            other.ages.forEach(this::add);
+        }
+
+        private TeamAggregate copy() {
+            TeamAggregate copy = new TeamAggregate();
+            copy.merge(this);
+            return copy;
+        }
+
+        private boolean sameAs(TeamAggregate other) {
+            return other != null && count == other.count && sum == other.sum && ages.equals(other.ages);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMemberEntity.memberEntity;
+
+/**
+ * username 앞부분 일치 검색을 범위 조건으로 바꾼다.
+ * - username like 'abc%' 대신 username >= 'abc' and username < 'abd' 로 검색하므로
+ *   바인딩 파라미터여도 항상 idx_member_username 의 범위 스캔이 된다. (%, _ 이스케이프도 필요 없음)
+ * - 상한은 접두어의 마지막 문자를 하나 증가시킨 값이며, 문자열 비교가 UTF-16 코드 단위 순서(H2 기본)일 때
+ *   startsWith 와 결과가 같다.
+ */
+public final class UsernamePrefix {
+
+    private UsernamePrefix() {
+    }
+
+    /**
+     * @return 접두어가 비어 있으면 null (Querydsl where 에서 무시됨)
+     */
+    public static BooleanExpression startsWith(String prefix) {
+        return hasText(prefix) ? memberEntity.username.goe(prefix).and(memberEntity.username.lt(upperBound(prefix))) : null;
+    }
+
+    /**
+     * 접두어로 시작하는 모든 문자열보다 큰 가장 작은 문자열
+     * - 끝의 '￿' 는 증가시킬 수 없으므로 떼어내고 그 앞 문자를 증가시킨다.
+     * - 접두어 전체가 '￿' 이면 '￿' 를 하나 더 붙인 값을 상한으로 사용한다. (실제 username 에는 없는 경우)
+     */
+    public static String upperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return prefix + Character.MAX_VALUE;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+}
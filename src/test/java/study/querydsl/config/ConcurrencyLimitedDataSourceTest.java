@@ -0,0 +1,141 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitedDataSourceTest {
+
+    DataSource target;
+    ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void before() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void closeReleasesPermit() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(0);
+
+        connection.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void doubleCloseReleasesOnce() throws SQLException {
+        Connection connection = dataSource.getConnection();
+
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void failedGetConnectionReleasesPermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool closed"));
+
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLException.class);
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void timesOutWaitingForPermit() throws SQLException {
+        dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+        Connection held = dataSource.getConnection();
+
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLTransientConnectionException.class);
+
+        held.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void waitersAcquireInArrivalOrder() throws Exception {
+        Connection held = dataSource.getConnection();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        Thread first = waiter(1, order);
+        awaitQueueLength(1);
+        Thread second = waiter(2, order);
+        awaitQueueLength(2);
+
+        held.close();
+        first.join(TimeUnit.SECONDS.toMillis(5));
+        second.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(order).containsExactly(1, 2);
+    }
+
+    @Test
+    void proxyHasItsOwnIdentity() throws SQLException {
+        dataSource = new ConcurrencyLimitedDataSource(target, 2, Duration.ofSeconds(5));
+        Connection shared = mock(Connection.class);
+        when(target.getConnection()).thenReturn(shared);
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThat(first).isEqualTo(first).isNotEqualTo(second);
+        assertThat(first.hashCode()).isEqualTo(System.identityHashCode(first));
+        assertThat(first.unwrap(Connection.class)).isSameAs(first);
+        assertThat(first.isWrapperFor(Connection.class)).isTrue();
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void leakedConnectionReleasesPermitWhenCollected() throws Exception {
+        leakConnection();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (dataSource.getAvailablePermits() == 0 && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    private void leakConnection() throws SQLException {
+        dataSource.getConnection();
+    }
+
+    private Thread waiter(int id, List<Integer> order) {
+        Thread thread = new Thread(() -> {
+            try (Connection ignored = dataSource.getConnection()) {
+                order.add(id);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void awaitQueueLength(int length) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dataSource.getQueueLength() < length && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dataSource.getQueueLength()).isEqualTo(length);
+    }
+}
@@ -0,0 +1,63 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * replica 는 같은 H2 서버를 바라보는 별도 커넥션 풀로 대신한다.
+ * - 라우팅은 커밋된 트랜잭션 단위로 확인해야 하므로 테스트 트랜잭션 없이 실행하고 직접 정리한다.
+ */
+@SpringBootTest(properties = {
+        "member.replica.enabled=true",
+        "member.replica.hikari.driver-class-name=org.h2.Driver",
+        "member.replica.hikari.jdbc-url=${spring.datasource.hikari.jdbc-url}",
+        "member.replica.hikari.username=${spring.datasource.hikari.username}",
+        "member.replica.hikari.password=${spring.datasource.hikari.password}",
+        "member.replica.hikari.read-only=true"
+})
+class ReplicaRoutingTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    MemberEntity member;
+
+    @AfterEach
+    void after() {
+        if (member != null) {
+            memberRepository.deleteById(member.getId());
+        }
+    }
+
+    @Test
+    void writesGoToPrimaryAndReadOnlySearchesGoToReplica() {
+        double primaryBefore = routed(ReplicaRoutingDataSource.PRIMARY);
+        member = memberRepository.save(new MemberEntity("replicaMember", 10));
+        assertThat(routed(ReplicaRoutingDataSource.PRIMARY)).isGreaterThan(primaryBefore);
+
+        double replicaBefore = routed(ReplicaRoutingDataSource.REPLICA);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("replicaMember");
+        List<MemberTeamDto> result = memberRepository.search(condition);
+
+        assertThat(result).extracting(MemberTeamDto::getUsername).containsExactly("replicaMember");
+        assertThat(routed(ReplicaRoutingDataSource.REPLICA)).isEqualTo(replicaBefore + 1);
+    }
+
+    private double routed(String target) {
+        return meterRegistry.get("datasource.routing").tag("target", target).counter().count();
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.repository.support.MemberDataChangedEvent;
+import study.querydsl.support.SqlCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void unchangedSearchIsNotModifiedWithoutQuery() throws Exception {
+        String etag = mockMvc.perform(get("/v2/members").param("teamName", "teamA"))
+                             .andExpect(status().isOk())
+                             .andExpect(header().exists(HttpHeaders.ETAG))
+                             .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        SqlCaptor.clear();
+
+        mockMvc.perform(get("/v2/members").param("teamName", "teamA").header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isNotModified());
+
+        assertThat(SqlCaptor.statements()).isEmpty();
+    }
+
+    @Test
+    void dataChangeChangesETag() throws Exception {
+        String etag = mockMvc.perform(get("/v3/members"))
+                             .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        eventPublisher.publishEvent(new MemberDataChangedEvent(MemberEntity.class));
+
+        mockMvc.perform(get("/v3/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void nullIngestLineIsRejected() throws Exception {
+        String body = "{\"username\":\"bulk1\",\"age\":10}\nnull\n{broken\n";
+
+        mockMvc.perform(post("/members/bulk").contentType("application/x-ndjson").content(body))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.accepted").value(1))
+               .andExpect(jsonPath("$.rejected").value(2));
+    }
+
+    @Test
+    void invalidCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("cursor", "not-a-cursor"))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+               .andExpect(status().isBadRequest());
+    }
+}
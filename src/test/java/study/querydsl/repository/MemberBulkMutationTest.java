@@ -0,0 +1,147 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkMutationProgress;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+import study.querydsl.repository.support.SearchResultCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMemberEntity.memberEntity;
+
+/**
+ * 청크마다 커밋되므로 테스트 트랜잭션 없이 실행하고 직접 정리한다.
+ */
+@SpringBootTest(properties = {"member.bulk.chunk-size=2", "member.bulk.rows-per-second=20"})
+class MemberBulkMutationTest {
+
+    @Autowired
+    MemberBulkRepository memberBulkRepository;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    SearchResultCache searchResultCache;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    TeamEntity team;
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    void before() {
+        team = teamRepository.save(new TeamEntity("chunkTeam"));
+        for (int i = 0; i < 5; i++) {
+            memberIds.add(memberRepository.save(new MemberEntity("chunk" + i, 10 + i, team)).getId());
+        }
+    }
+
+    @AfterEach
+    void after() {
+        memberRepository.deleteAll(memberRepository.findAllById(memberIds));
+        teamRepository.delete(team);
+    }
+
+    @Test
+    void updateInChunks() {
+        List<BulkMutationProgress> progress = new ArrayList<>();
+
+        BulkMutationProgress result = memberBulkRepository.updateInChunks(
+                memberEntity.username.startsWith("chunk").and(memberEntity.age.lt(14)),
+                update -> update.set(memberEntity.username, "비회원"),
+                null, progress::add);
+
+        // chunk-size 2: [10, 11], [12, 13]
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getAffected()).isEqualTo(4);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(result.getCheckpoint()).isEqualTo(memberIds.get(3));
+        assertThat(progress).extracting(BulkMutationProgress::getAffected).containsExactly(2L, 4L, 4L);
+
+        assertThat(usernames()).containsExactly("비회원", "비회원", "비회원", "비회원", "chunk4");
+    }
+
+    @Test
+    void deleteResumesFromCheckpoint() {
+        // 첫 번째 청크까지 처리된 상태에서 중단되었다고 가정
+        Long checkpoint = memberIds.get(1);
+
+        BulkMutationProgress result = memberBulkRepository.deleteInChunks(
+                memberEntity.username.startsWith("chunk"), checkpoint, progress -> {
+                });
+
+        assertThat(result.getAffected()).isEqualTo(3);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(usernames()).containsExactly("chunk0", "chunk1");
+    }
+
+    @Test
+    void associationPredicateIsEvaluatedInSubquery() {
+        BulkMutationProgress result = memberBulkRepository.deleteInChunks(
+                memberEntity.team.name.eq("chunkTeam").and(memberEntity.age.goe(13)), null, progress -> {
+                });
+
+        assertThat(result.getAffected()).isEqualTo(2);
+        assertThat(usernames()).containsExactly("chunk0", "chunk1", "chunk2");
+    }
+
+    @Test
+    void committedChunksInvalidateCachedSearch() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("chunk");
+        assertThat(cachedSearch(condition)).hasSize(5);
+
+        memberBulkRepository.updateInChunks(memberEntity.id.in(memberIds),
+                update -> update.set(memberEntity.username, "renamed"), null, progress -> {
+                });
+
+        assertThat(cachedSearch(condition)).isEmpty();
+        assertThat(usernames()).containsOnly("renamed");
+    }
+
+    @Test
+    void throttlesToRowsPerSecond() {
+        BulkMutationProgress result = memberBulkRepository.deleteInChunks(
+                memberEntity.id.in(memberIds), null, progress -> {
+                });
+
+        // 20 rows/s: 마지막 청크까지 5 건 -> 250ms 이상
+        assertThat(result.getAffected()).isEqualTo(5);
+        assertThat(result.getElapsedMillis()).isGreaterThanOrEqualTo(250);
+    }
+
+    @Test
+    void rejectsOuterTransaction() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                memberBulkRepository.deleteInChunks(memberEntity.username.startsWith("chunk"), null, progress -> {
+                })))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(usernames()).hasSize(5);
+    }
+
+    private List<MemberTeamDto> cachedSearch(MemberSearchCondition condition) {
+        return searchResultCache.list("search", condition, () -> memberJpaRepository.search(condition));
+    }
+
+    private List<String> usernames() {
+        return memberRepository.findAllById(memberIds).stream()
+                               .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                               .map(MemberEntity::getUsername)
+                               .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberIngestRow;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberBulkRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberBulkRepository memberBulkRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    void insertBatch() {
+        em.persist(new TeamEntity("teamA"));
+
+        int accepted = memberBulkRepository.insertBatch(List.of(
+                new MemberIngestRow("bulk1", 10, "teamA"),
+                new MemberIngestRow("bulk2", 20, null),
+                new MemberIngestRow("", 30, "teamA"),           // username 없음
+                new MemberIngestRow("bulk4", -1, "teamA"),      // 나이 음수
+                new MemberIngestRow("bulk5", 50, "noSuchTeam")  // 존재하지 않는 팀
+        ));
+
+        assertThat(accepted).isEqualTo(2);
+        List<MemberEntity> bulk1 = memberRepository.findByUsername("bulk1");
+        assertThat(bulk1).hasSize(1);
+        assertThat(bulk1.get(0).getTeam().getName()).isEqualTo("teamA");
+        assertThat(memberRepository.findByUsername("bulk2").get(0).getTeam()).isNull();
+    }
+}
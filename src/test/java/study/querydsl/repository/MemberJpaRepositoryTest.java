@@ -8,9 +8,11 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.MemberEntity;
 import study.querydsl.entity.TeamEntity;
+import study.querydsl.repository.support.MemberSearchTemplates;
 
 import javax.persistence.EntityManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -70,4 +72,53 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
-}
\ No newline at end of file
+    @Test
+    void exportToTest() {
+        TeamEntity teamA = new TeamEntity("teamA");
+        TeamEntity teamB = new TeamEntity("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < 10; i++) {
+            em.persist(new MemberEntity("member" + i, i, (i % 2 == 0) ? teamA : teamB));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        List<MemberTeamDto> exported = new ArrayList<>();
+        long count = memberJpaRepository.exportTo(condition, 2, exported::add);
+
+        assertThat(count).isEqualTo(5);
+        assertThat(exported).extracting("teamName").containsOnly("teamB");
+    }
+
+    /**
+     * 32가지 조건 조합(shape) 모두 JPQL 템플릿 결과가 Querydsl(searchByBuilder) 결과와 같아야 한다.
+     */
+    @Test
+    void searchTemplateMatchesQuerydslForAllShapes() {
+        TeamEntity teamA = new TeamEntity("teamA");
+        TeamEntity teamB = new TeamEntity("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < 10; i++) {
+            em.persist(new MemberEntity("member" + (i % 3), i * 10, (i % 2 == 0) ? teamA : teamB));
+        }
+
+        for (int shape = 0; shape < MemberSearchTemplates.SHAPES; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername((shape & MemberSearchTemplates.USERNAME) != 0 ? "member1" : null);
+            condition.setTeamName((shape & MemberSearchTemplates.TEAM_NAME) != 0 ? "teamB" : null);
+            condition.setAgeGoe((shape & MemberSearchTemplates.AGE_GOE) != 0 ? 20 : null);
+            condition.setAgeLoe((shape & MemberSearchTemplates.AGE_LOE) != 0 ? 70 : null);
+            condition.setUsernamePrefix((shape & MemberSearchTemplates.USERNAME_PREFIX) != 0 ? "member" : null);
+
+            assertThat(MemberSearchTemplates.shapeOf(condition)).isEqualTo(shape);
+            assertThat(memberJpaRepository.search(condition))
+                    .containsExactlyInAnyOrderElementsOf(memberJpaRepository.searchByBuilder(condition));
+        }
+    }
+
+}
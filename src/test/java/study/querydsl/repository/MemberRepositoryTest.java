@@ -6,16 +6,19 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.MemberEntity;
 import study.querydsl.entity.QMemberEntity;
 import study.querydsl.entity.TeamEntity;
+import study.querydsl.repository.support.InvalidCursorRequestException;
 
 import javax.persistence.EntityManager;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static study.querydsl.entity.QMemberEntity.*;
 
 @SpringBootTest
@@ -72,6 +75,33 @@ public class MemberRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
+    @Test
+    void searchByUsernamePrefix() {
+        // given
+        TeamEntity teamA = new TeamEntity("teamA");
+        em.persist(teamA);
+        em.persist(new MemberEntity("kim", 10, teamA));
+        em.persist(new MemberEntity("kimchi", 20, teamA));
+        em.persist(new MemberEntity("kiz", 30, teamA));
+        em.persist(new MemberEntity("ki%m", 40, teamA));
+        em.persist(new MemberEntity("lee", 50));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("kim");
+
+        // when
+        List<MemberTeamDto> templateResult = memberRepository.search(condition);
+        Page<MemberTeamDto> querydslResult = memberRepository.searchPageSimple(condition, PageRequest.of(0, 10));
+
+        // then: like 'kim%' 와 같은 결과, '%' 는 문자 그대로 비교
+        assertThat(templateResult).extracting("username").containsExactlyInAnyOrder("kim", "kimchi");
+        assertThat(querydslResult.getContent()).extracting("username").containsExactlyInAnyOrder("kim", "kimchi");
+        assertThat(querydslResult.getTotalElements()).isEqualTo(2);
+
+        condition.setUsernamePrefix("ki%");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("ki%m");
+    }
+
     @Test
     void searchPageSimple() {
         // given
@@ -99,6 +129,55 @@ public class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    void searchByCursor() {
+        // given
+        TeamEntity teamA = new TeamEntity("teamA");
+        TeamEntity teamB = new TeamEntity("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new MemberEntity("member" + i, i * 10, teamA));
+            em.persist(new MemberEntity("other" + i, i * 10, teamB));
+        }
+
+        // when
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        CursorPage<MemberTeamDto> first = memberRepository.searchByCursor(condition, null, 2);
+        CursorPage<MemberTeamDto> second = memberRepository.searchByCursor(condition, first.getNextCursor(), 2);
+        CursorPage<MemberTeamDto> last = memberRepository.searchByCursor(condition, second.getNextCursor(), 2);
+
+        // then
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").containsExactly("member3", "member4");
+        assertThat(last.getContent()).extracting("username").containsExactly("member5");
+        assertThat(last.isHasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchByCursorSizeIsCapped() {
+        // given
+        for (int i = 1; i <= 3; i++) {
+            em.persist(new MemberEntity("member" + i, i * 10));
+        }
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // when: size + 1 이 int 범위를 넘지 않도록 MAX_CURSOR_PAGE_SIZE 로 제한
+        CursorPage<MemberTeamDto> page = memberRepository.searchByCursor(condition, null, Integer.MAX_VALUE);
+
+        // then
+        assertThat(page.getContent()).hasSize(3);
+        assertThat(page.isHasNext()).isFalse();
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, null, 0))
+                .isInstanceOf(InvalidCursorRequestException.class);
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, "not-a-cursor", 10))
+                .isInstanceOf(InvalidCursorRequestException.class);
+    }
+
     /**
      * SpringDataJPA에서 QueryDsl을 지원하는 기능
      * - 실무에서 사용하기에는 아직은 무리가 있다.
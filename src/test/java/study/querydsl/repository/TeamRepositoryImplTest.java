@@ -0,0 +1,87 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+import study.querydsl.support.SqlCaptor;
+
+import javax.persistence.EntityManager;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryImplTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Test
+    void teamsWithMembers() {
+        saveTeams(3, 2);
+
+        Page<TeamMembersDto> result = teamRepository.findTeamsWithMembers(PageRequest.of(0, 2));
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting("name").containsExactly("team0", "team1");
+        assertThat(result.getContent().get(1).getMembers())
+                .extracting(MemberDto::getUsername)
+                .containsExactly("team1-member0", "team1-member1");
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithTeams() {
+        saveTeams(3, 3);
+        int fewTeams = statementCount(PageRequest.of(0, 100));
+        saveTeams(30, 3);
+        int manyTeams = statementCount(PageRequest.of(0, 100));
+
+        // 팀 페이지 + 회원 in 쿼리
+        assertThat(fewTeams).isEqualTo(2);
+        assertThat(manyTeams).isEqualTo(fewTeams);
+    }
+
+    @Test
+    void pagingIsDoneInDatabase() {
+        saveTeams(10, 1);
+
+        Page<TeamMembersDto> result = teamRepository.findTeamsWithMembers(PageRequest.of(1, 4));
+
+        assertThat(result.getContent()).hasSize(4);
+        assertThat(result.getTotalElements()).isEqualTo(10);
+        assertThat(SqlCaptor.statements().stream().map(String::toLowerCase).collect(Collectors.toList()))
+                .noneMatch(sql -> sql.contains("join"))
+                .anyMatch(sql -> sql.contains("limit") || sql.contains("fetch first") || sql.contains("offset"));
+    }
+
+    private int statementCount(PageRequest pageRequest) {
+        SqlCaptor.clear();
+        Page<TeamMembersDto> result = teamRepository.findTeamsWithMembers(pageRequest);
+        result.getContent().forEach(team -> team.getMembers().size());
+        return SqlCaptor.statements().size();
+    }
+
+    private void saveTeams(int teams, int membersPerTeam) {
+        long existing = teamRepository.count();
+        for (int i = 0; i < teams; i++) {
+            TeamEntity team = new TeamEntity("team" + (existing + i));
+            em.persist(team);
+            for (int j = 0; j < membersPerTeam; j++) {
+                em.persist(new MemberEntity(team.getName() + "-member" + j, j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+        SqlCaptor.clear();
+    }
+}
@@ -0,0 +1,50 @@
+package study.querydsl.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.entity.TeamEntity;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시는 커밋된 데이터만 보관하므로 트랜잭션 롤백 없이 실행하고 직접 정리한다.
+ */
+@SpringBootTest
+class TeamRepositoryTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    TeamEntity team;
+
+    @AfterEach
+    void after() {
+        if (team != null) {
+            teamRepository.deleteById(team.getId());
+        }
+    }
+
+    @Test
+    void teamLookupsAreServedFromSecondLevelCache() {
+        team = teamRepository.save(new TeamEntity("cachedTeam"));
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        teamRepository.findById(team.getId());
+        teamRepository.findById(team.getId());
+        teamRepository.findByName("cachedTeam");
+        teamRepository.findByName("cachedTeam");
+
+        assertThat(statistics.getDomainDataRegionStatistics("team").getHitCount()).isGreaterThanOrEqualTo(2);
+        assertThat(statistics.getQueryRegionStatistics("team-by-name").getHitCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,111 @@
+package study.querydsl.repository.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 쓰기 스레드를 시작하지 않은 채로 큐를 채워서 queued/dropped 집계를 확인한다.
+ */
+class AsyncSqlLoggerTest {
+    static final Duration SLOW_THRESHOLD = Duration.ofMillis(100);
+    static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    static final long SLOW = TimeUnit.MILLISECONDS.toNanos(150);
+
+    SimpleMeterRegistry meterRegistry;
+    StatementInformation statement;
+    AsyncSqlLogger logger;
+
+    @BeforeEach
+    void before() {
+        meterRegistry = new SimpleMeterRegistry();
+        statement = mock(StatementInformation.class);
+        when(statement.getSqlWithValues()).thenReturn("select 1");
+    }
+
+    @AfterEach
+    void after() throws InterruptedException {
+        if (logger != null) {
+            logger.destroy();
+        }
+    }
+
+    @Test
+    void sampleRateZeroLogsOnlySlowAndFailed() {
+        logger = new AsyncSqlLogger(meterRegistry, 0, SLOW_THRESHOLD, 10, false);
+
+        for (int i = 0; i < 5; i++) {
+            logger.onAfterAnyExecute(statement, FAST, null);
+        }
+        logger.onAfterAnyExecute(statement, SLOW, null);
+        logger.onAfterAnyExecute(statement, FAST, new SQLException("failed"));
+
+        assertThat(queued("sampled")).isEqualTo(0);
+        assertThat(queued("slow")).isEqualTo(2);
+        assertThat(queueSize()).isEqualTo(2);
+    }
+
+    @Test
+    void sampleRateOneLogsEveryStatement() {
+        logger = new AsyncSqlLogger(meterRegistry, 1, SLOW_THRESHOLD, 10, false);
+
+        for (int i = 0; i < 5; i++) {
+            logger.onAfterAnyExecute(statement, FAST, null);
+        }
+
+        assertThat(queued("sampled")).isEqualTo(5);
+        assertThat(queued("slow")).isEqualTo(0);
+    }
+
+    @Test
+    void fullQueueDropsWithoutBlocking() {
+        logger = new AsyncSqlLogger(meterRegistry, 1, SLOW_THRESHOLD, 2, false);
+
+        logger.onAfterAnyExecute(statement, FAST, null);
+        logger.onAfterAnyExecute(statement, SLOW, null);
+        logger.onAfterAnyExecute(statement, FAST, null);
+        logger.onAfterAnyExecute(statement, SLOW, null);
+        logger.onAfterAnyExecute(statement, FAST, new SQLException("failed"));
+
+        assertThat(queued("sampled")).isEqualTo(1);
+        assertThat(queued("slow")).isEqualTo(1);
+        assertThat(dropped("sampled")).isEqualTo(1);
+        assertThat(dropped("slow")).isEqualTo(2);
+        assertThat(queueSize()).isEqualTo(2);
+    }
+
+    @Test
+    void shutdownDrainsQueuedEntries() throws InterruptedException {
+        logger = new AsyncSqlLogger(meterRegistry, 1, SLOW_THRESHOLD, 10, false);
+        for (int i = 0; i < 5; i++) {
+            logger.onAfterAnyExecute(statement, FAST, null);
+        }
+
+        logger.start();
+        logger.destroy();
+
+        assertThat(queueSize()).isEqualTo(0);
+    }
+
+    private double queued(String kind) {
+        return meterRegistry.get("sql.log.queued").tag("kind", kind).counter().count();
+    }
+
+    private double dropped(String kind) {
+        return meterRegistry.get("sql.log.dropped").tag("kind", kind).counter().count();
+    }
+
+    private double queueSize() {
+        return meterRegistry.get("sql.log.queue.size").gauge().value();
+    }
+}
@@ -0,0 +1,144 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 묶음 조회는 별도 스레드/커넥션에서 실행되므로 테스트 트랜잭션 없이 커밋된 데이터로 확인하고 직접 정리한다.
+ */
+@SpringBootTest
+class MemberBatchLoaderTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    TeamDictionary teamDictionary;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    SimpleMeterRegistry meterRegistry;
+    MemberBatchLoader batchLoader;
+    TeamEntity team;
+    List<MemberEntity> members = new ArrayList<>();
+
+    @BeforeEach
+    void before() {
+        meterRegistry = new SimpleMeterRegistry();
+        batchLoader = new MemberBatchLoader(em, emf, teamDictionary, meterRegistry,
+                Duration.ofMillis(50), 256, Duration.ofSeconds(5), 2);
+        team = teamRepository.save(new TeamEntity("batchTeam"));
+        for (int i = 0; i < 20; i++) {
+            members.add(memberRepository.save(new MemberEntity("batch" + i, i, team)));
+        }
+    }
+
+    @AfterEach
+    void after() throws InterruptedException {
+        batchLoader.destroy();
+        memberRepository.deleteAll(members);
+        teamRepository.delete(team);
+    }
+
+    @Test
+    void concurrentLookupsAreResolvedWithFewQueries() throws Exception {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        teamDictionary.teamNames(List.of(team.getId()));
+        statistics.clear();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(members.size());
+        try {
+            List<Future<Optional<MemberTeamDto>>> futures = new ArrayList<>();
+            for (MemberEntity member : members) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return batchLoader.findById(member.getId());
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < members.size(); i++) {
+                MemberTeamDto found = futures.get(i).get(5, TimeUnit.SECONDS).orElseThrow();
+                assertThat(found.getUsername()).isEqualTo(members.get(i).getUsername());
+                assertThat(found.getTeamName()).isEqualTo("batchTeam");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(statistics.getQueryExecutionCount()).isLessThan(members.size() / 2);
+    }
+
+    @Test
+    void unknownIdIsEmpty() {
+        assertThat(batchLoader.findById(-1L)).isEmpty();
+    }
+
+    @Test
+    void readWriteTransactionSeesUncommittedMember() {
+        transactionTemplate.executeWithoutResult(status -> {
+            MemberEntity uncommitted = new MemberEntity("uncommitted", 1);
+            em.persist(uncommitted);
+
+            assertThat(batchLoader.findById(uncommitted.getId()))
+                    .map(MemberTeamDto::getUsername)
+                    .contains("uncommitted");
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void openInViewPersistenceContextIsUsed() {
+        // OpenEntityManagerInViewInterceptor 처럼 트랜잭션 없이 EntityManager 를 스레드에 묶는다.
+        EntityManager viewEm = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(viewEm));
+        try {
+            MemberEntity member = members.get(0);
+            viewEm.find(MemberEntity.class, member.getId());
+
+            assertThat(batchLoader.findById(member.getId()))
+                    .map(MemberTeamDto::getUsername)
+                    .contains(member.getUsername());
+            assertThat(meterRegistry.get("member.lookup").tag("source", "persistence_context")
+                                    .counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("member.lookup").tag("source", "batch")
+                                    .counter().count()).isEqualTo(0);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            viewEm.close();
+        }
+    }
+}
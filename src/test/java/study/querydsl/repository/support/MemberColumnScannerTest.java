@@ -0,0 +1,111 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberColumns;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberColumnScannerTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberColumnScanner scanner;
+    @Autowired
+    MemberSearchTemplates templates;
+
+    TeamEntity teamA;
+
+    @BeforeEach
+    void before() {
+        teamA = new TeamEntity("teamA");
+        TeamEntity teamB = new TeamEntity("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        // 초기 용량(1024)보다 많이 넣어서 배열 확장도 확인
+        for (int i = 0; i < 3000; i++) {
+            em.persist(new MemberEntity("member" + (i % 10), i % 100, (i % 2 == 0) ? teamA : teamB));
+        }
+        em.persist(new MemberEntity("noTeam", 30));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void scanFillsColumnsInIdOrder() {
+        MemberColumns columns = scanner.scan(new MemberSearchCondition(), 500, true);
+
+        assertThat(columns.size()).isEqualTo(3001);
+        for (int row = 1; row < columns.size(); row++) {
+            assertThat(columns.id(row)).isGreaterThan(columns.id(row - 1));
+        }
+        int last = columns.size() - 1;
+        assertThat(columns.username(last)).isEqualTo("noTeam");
+        assertThat(columns.teamId(last)).isEqualTo(MemberColumns.NO_TEAM);
+    }
+
+    @Test
+    void scanAppliesSearchCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(19);
+
+        MemberColumns columns = scanner.scan(condition, 500, false);
+
+        // 짝수 인덱스(teamA) 중 나이 10 ~ 19: 100 개 주기마다 5 개
+        assertThat(columns.size()).isEqualTo(150);
+        for (int row = 0; row < columns.size(); row++) {
+            assertThat(columns.teamId(row)).isEqualTo(teamA.getId());
+            assertThat(columns.age(row)).isBetween(10, 19);
+        }
+        assertThat(columns.hasUsernames()).isFalse();
+    }
+
+    @Test
+    void scanMatchesTemplateSearchForEveryShape() {
+        for (int shape = 0; shape < MemberSearchTemplates.SHAPES; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername((shape & MemberSearchTemplates.USERNAME) != 0 ? "member2" : null);
+            condition.setTeamName((shape & MemberSearchTemplates.TEAM_NAME) != 0 ? "teamA" : null);
+            condition.setAgeGoe((shape & MemberSearchTemplates.AGE_GOE) != 0 ? 20 : null);
+            condition.setAgeLoe((shape & MemberSearchTemplates.AGE_LOE) != 0 ? 70 : null);
+            condition.setUsernamePrefix((shape & MemberSearchTemplates.USERNAME_PREFIX) != 0 ? "member" : null);
+
+            MemberColumns columns = scanner.scan(condition, 500, true);
+            List<Long> expected = templates.search(em, condition).stream()
+                                           .map(MemberTeamDto::getMemberId)
+                                           .sorted()
+                                           .collect(Collectors.toList());
+
+            List<Long> scanned = new ArrayList<>();
+            for (int row = 0; row < columns.size(); row++) {
+                scanned.add(columns.id(row));
+            }
+            assertThat(scanned).as("shape %d", shape).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void unknownTeamScansNothing() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("unknown");
+
+        assertThat(scanner.scan(condition, 500, false).size()).isZero();
+    }
+}
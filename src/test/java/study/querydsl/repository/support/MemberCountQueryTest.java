@@ -0,0 +1,121 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+import study.querydsl.support.SqlCaptor;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberCountQueryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberTestRepository memberTestRepository;
+    @Autowired
+    TeamDictionary teamDictionary;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    void before() {
+        queryFactory = new JPAQueryFactory(em);
+
+        TeamEntity teamA = new TeamEntity("teamA");
+        TeamEntity teamB = new TeamEntity("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < 10; i++) {
+            em.persist(new MemberEntity("member" + i, i * 10, (i % 2 == 0) ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+        SqlCaptor.clear();
+    }
+
+    @Test
+    void countWithoutTeamConditionHasNoJoin() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("");
+        condition.setAgeGoe(30);
+
+        Long count = MemberCountQuery.of(queryFactory, condition, teamDictionary).fetchOne();
+
+        assertThat(count).isEqualTo(7);
+        String sql = singleCountSql();
+        assertThat(sql).contains("count(");
+        assertThat(sql).doesNotContain("join");
+    }
+
+    @Test
+    void countWithTeamConditionUsesTeamIdWithoutJoin() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Long count = MemberCountQuery.of(queryFactory, condition, teamDictionary).fetchOne();
+
+        assertThat(count).isEqualTo(5);
+        String sql = singleCountSql();
+        assertThat(sql).contains("team_id");
+        assertThat(sql).doesNotContain("join");
+    }
+
+    @Test
+    void countWithUnknownTeamIsZero() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("unknown");
+
+        Long count = MemberCountQuery.of(queryFactory, condition, teamDictionary).fetchOne();
+
+        assertThat(count).isEqualTo(0);
+    }
+
+    @Test
+    void pagingPathsUseJoinFreeCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3);
+
+        assertThat(memberRepository.searchPageSimple(condition, pageRequest).getTotalElements()).isEqualTo(10);
+        assertThat(singleCountSql()).doesNotContain("join");
+        SqlCaptor.clear();
+
+        assertThat(memberRepository.searchPageComplex(condition, pageRequest).getTotalElements()).isEqualTo(10);
+        assertThat(singleCountSql()).doesNotContain("join");
+        SqlCaptor.clear();
+
+        assertThat(memberTestRepository.applyPagination(condition, pageRequest).getTotalElements()).isEqualTo(10);
+        assertThat(singleCountSql()).doesNotContain("join");
+        SqlCaptor.clear();
+
+        assertThat(memberTestRepository.applyPaginationV2(condition, pageRequest).getTotalElements()).isEqualTo(10);
+        assertThat(singleCountSql()).doesNotContain("join");
+    }
+
+    private String singleCountSql() {
+        List<String> countSql = SqlCaptor.statements().stream()
+                                         .map(String::toLowerCase)
+                                         .filter(sql -> sql.contains("count("))
+                                         .collect(Collectors.toList());
+        assertThat(countSql).hasSize(1);
+        return countSql.get(0);
+    }
+}
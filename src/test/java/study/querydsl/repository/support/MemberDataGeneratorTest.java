@@ -0,0 +1,142 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JDBC 로 커밋되는 데이터이므로 테스트 트랜잭션 없이 실행하고, 생성된 행(기존 최대 식별자 이후)을 직접 정리한다.
+ */
+@SpringBootTest
+class MemberDataGeneratorTest {
+    static final int TEAMS = 4;
+    static final int MEMBERS = 100;
+
+    @Autowired
+    MemberDataGenerator memberDataGenerator;
+    @Autowired
+    IdBlockAllocator idBlockAllocator;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    long memberIdBefore;
+    long teamIdBefore;
+
+    @BeforeEach
+    void before() {
+        memberIdBefore = maxId("member_id", "member");
+        teamIdBefore = maxId("team_id", "team");
+    }
+
+    @AfterEach
+    void after() {
+        jdbcTemplate.update("delete from member where member_id > ?", memberIdBefore);
+        jdbcTemplate.update("delete from team where team_id > ?", teamIdBefore);
+    }
+
+    @Test
+    void reservedBlocksDoNotOverlap() {
+        long first = idBlockAllocator.reserveMemberIds(10);
+        long second = idBlockAllocator.reserveMemberIds(10);
+
+        assertThat(second).isGreaterThanOrEqualTo(first + 10);
+    }
+
+    @Test
+    void generatedIdsDoNotCollideWithJpaInserts() {
+        memberDataGenerator.generate(spec(MemberDataSpec.Distribution.ROUND_ROBIN));
+        Set<Long> generatedMemberIds = new HashSet<>(jdbcTemplate.queryForList(
+                "select member_id from member where member_id > ?", Long.class, memberIdBefore));
+        Set<Long> generatedTeamIds = new HashSet<>(teamIds());
+
+        // allocationSize(50) 보다 많이 저장하여 Hibernate 가 시퀀스에서 식별자 블록을 두 번 이상 받아가도록 한다.
+        List<Long> jpaMemberIds = new ArrayList<>();
+        for (int i = 0; i < IdBlockAllocator.ALLOCATION_SIZE + 10; i++) {
+            jpaMemberIds.add(memberRepository.save(new MemberEntity("jpa" + i, i)).getId());
+        }
+        Long jpaTeamId = teamRepository.save(new TeamEntity("jpaTeam")).getId();
+
+        assertThat(generatedMemberIds).hasSize(MEMBERS);
+        assertThat(generatedTeamIds).hasSize(TEAMS);
+        assertThat(jpaMemberIds).doesNotHaveDuplicates().doesNotContainAnyElementsOf(generatedMemberIds);
+        assertThat(generatedTeamIds).doesNotContain(jpaTeamId);
+    }
+
+    @Test
+    void roundRobinSpreadsMembersEvenly() {
+        memberDataGenerator.generate(spec(MemberDataSpec.Distribution.ROUND_ROBIN));
+
+        Map<String, Long> membersPerTeam = membersPerTeam();
+        assertThat(membersPerTeam).hasSize(TEAMS);
+        assertThat(membersPerTeam.values()).containsOnly((long) MEMBERS / TEAMS);
+        // 기존 InitMember 와 같은 이름
+        assertThat(membersPerTeam).containsKeys("teamA", "teamB", "teamC", "teamD");
+    }
+
+    @Test
+    void uniformUsesEveryTeam() {
+        memberDataGenerator.generate(spec(MemberDataSpec.Distribution.UNIFORM));
+
+        Map<String, Long> membersPerTeam = membersPerTeam();
+        assertThat(membersPerTeam).hasSize(TEAMS);
+        assertThat(membersPerTeam.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(MEMBERS);
+    }
+
+    @Test
+    void zipfFavorsFirstTeams() {
+        memberDataGenerator.generate(spec(MemberDataSpec.Distribution.ZIPF));
+
+        Map<String, Long> membersPerTeam = membersPerTeam();
+        assertThat(membersPerTeam.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(MEMBERS);
+        assertThat(membersPerTeam.get("teamA")).isGreaterThan(membersPerTeam.getOrDefault("teamD", 0L));
+    }
+
+    private MemberDataSpec spec(MemberDataSpec.Distribution teamDistribution) {
+        MemberDataSpec spec = new MemberDataSpec();
+        spec.setMembers(MEMBERS);
+        spec.setTeams(TEAMS);
+        spec.setTeamDistribution(teamDistribution);
+        // 여러 청크를 여러 스레드가 나누어 저장
+        spec.setBatchSize(7);
+        spec.setThreads(3);
+        return spec;
+    }
+
+    private Map<String, Long> membersPerTeam() {
+        return jdbcTemplate.queryForList(
+                        "select t.name, count(*) as members from member m join team t on m.team_id = t.team_id " +
+                                "where m.member_id > ? group by t.name", memberIdBefore)
+                           .stream()
+                           .collect(Collectors.toMap(row -> (String) row.get("NAME"),
+                                   row -> ((Number) row.get("MEMBERS")).longValue()));
+    }
+
+    private List<Long> teamIds() {
+        return jdbcTemplate.queryForList("select team_id from team where team_id > ?", Long.class, teamIdBefore);
+    }
+
+    private long maxId(String column, String table) {
+        Long max = jdbcTemplate.queryForObject("select max(" + column + ") from " + table, Long.class);
+        return max == null ? 0L : max;
+    }
+}
@@ -0,0 +1,190 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.QueryTimeoutException;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Count Query 는 별도 스레드/커넥션에서 실행되므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest
+class ParallelCountExecutorTest {
+    // H2 가 건수 최적화를 하지 못하는 오래 걸리는 Count Query
+    static final String SLOW_COUNT = "select count(*) from system_range(1, 1000000000) where mod(x, 7) = 3";
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ParallelCountExecutor executor;
+    // 페이지에 사용된 Count Query 수
+    AtomicInteger usedCounts = new AtomicInteger();
+    ParallelCountExecutor.CountListener countListener = elapsedNanos -> usedCounts.incrementAndGet();
+
+    @AfterEach
+    void after() {
+        executor.destroy();
+    }
+
+    @Test
+    void countRunsConcurrentlyOnAnotherThread() {
+        executor = executor(true, 0, Duration.ofSeconds(5));
+        AtomicReference<Thread> countThread = new AtomicReference<>();
+        AtomicReference<EntityManager> countEntityManager = new AtomicReference<>();
+
+        Page<Integer> page = executor.getPage(PageRequest.of(0, 2), () -> List.of(1, 2), countEm -> {
+            countThread.set(Thread.currentThread());
+            countEntityManager.set(countEm);
+            return 42L;
+        }, em, countListener);
+
+        assertThat(page.getTotalElements()).isEqualTo(42L);
+        assertThat(countThread.get()).isNotEqualTo(Thread.currentThread());
+        assertThat(countEntityManager.get()).isNotSameAs(em);
+        assertThat(count("parallel")).isEqualTo(1);
+        assertThat(usedCounts.get()).isEqualTo(1);
+    }
+
+    @Test
+    void skippedCountIsCancelled() throws Exception {
+        executor = executor(true, 0, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        // 첫 페이지가 페이지 크기보다 작으면 Count Query 가 필요 없다.
+        Page<Integer> page = executor.getPage(PageRequest.of(0, 10), () -> {
+            await(started);
+            sleep(200);
+            return List.of(1, 2);
+        }, slowCount(started, finished), em, countListener);
+
+        assertThat(page.getTotalElements()).isEqualTo(2L);
+        assertThat(count("cancelled")).isEqualTo(1);
+        assertThat(usedCounts.get()).isZero();
+        // 실행 중이던 Count Query 가 취소되어 바로 끝난다.
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void countTimesOut() throws Exception {
+        executor = executor(true, 0, Duration.ofMillis(200));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> executor.getPage(PageRequest.of(0, 2), () -> List.of(1, 2),
+                slowCount(started, finished), em, countListener))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void disabledRunsSerially() {
+        executor = executor(false, 0, Duration.ofSeconds(5));
+
+        assertSerial(PageRequest.of(0, 2));
+    }
+
+    @Test
+    void readWriteTransactionRunsSerially() {
+        executor = executor(true, 0, Duration.ofSeconds(5));
+
+        transactionTemplate.executeWithoutResult(status -> assertSerial(PageRequest.of(0, 2)));
+    }
+
+    @Test
+    void poolPressureRunsSerially() {
+        // 유휴 커넥션이 항상 부족한 상태
+        executor = executor(true, Integer.MAX_VALUE, Duration.ofSeconds(5));
+
+        assertSerial(PageRequest.of(0, 2));
+    }
+
+    @Test
+    void rejectedSubmissionRunsSerially() {
+        executor = executor(true, 0, Duration.ofSeconds(5));
+        // 종료된 스레드 풀은 작업을 거부한다.
+        executor.destroy();
+
+        assertSerial(PageRequest.of(0, 2));
+    }
+
+    private void assertSerial(Pageable pageable) {
+        AtomicReference<Thread> countThread = new AtomicReference<>();
+        AtomicReference<EntityManager> countEntityManager = new AtomicReference<>();
+
+        Page<Integer> page = executor.getPage(pageable, () -> List.of(1, 2), countEm -> {
+            countThread.set(Thread.currentThread());
+            countEntityManager.set(countEm);
+            return 42L;
+        }, em, countListener);
+
+        assertThat(page.getTotalElements()).isEqualTo(42L);
+        assertThat(countThread.get()).isEqualTo(Thread.currentThread());
+        assertThat(countEntityManager.get()).isSameAs(em);
+        assertThat(count("serial")).isEqualTo(1);
+        assertThat(count("parallel")).isZero();
+        assertThat(usedCounts.get()).isEqualTo(1);
+    }
+
+    private ParallelCountExecutor executor(boolean enabled, int minIdleConnections, Duration timeout) {
+        return new ParallelCountExecutor(emf, dataSource, meterRegistry, enabled, 2, 4, minIdleConnections, timeout);
+    }
+
+    private static ToLongFunction<EntityManager> slowCount(CountDownLatch started, CountDownLatch finished) {
+        return countEm -> {
+            started.countDown();
+            try {
+                return ((Number) countEm.createNativeQuery(SLOW_COUNT).getSingleResult()).longValue();
+            } finally {
+                finished.countDown();
+            }
+        };
+    }
+
+    private double count(String mode) {
+        return meterRegistry.get("querydsl.pagination.count").tag("mode", mode).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.MemberEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCountCacheTest {
+    static final String QUERY = "count";
+
+    SearchCountCache countCache;
+    AtomicInteger countQueryCalls;
+
+    @BeforeEach
+    void before() {
+        countCache = new SearchCountCache(new SimpleMeterRegistry(), true, Duration.ofMinutes(1), 100);
+        countQueryCalls = new AtomicInteger();
+    }
+
+    @Test
+    void sameNormalizedConditionHitsCache() {
+        MemberSearchCondition blankUsername = new MemberSearchCondition();
+        blankUsername.setUsername("");
+        blankUsername.setTeamName("teamA");
+        MemberSearchCondition noUsername = new MemberSearchCondition();
+        noUsername.setTeamName("teamA");
+
+        long first = countCache.get(QUERY, blankUsername, this::countQuery);
+        long second = countCache.get(QUERY, noUsername, this::countQuery);
+
+        assertThat(first).isEqualTo(second);
+        assertThat(countQueryCalls.get()).isEqualTo(1);
+        assertThat(countCache.stats().hitCount()).isEqualTo(1);
+        assertThat(countCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void dataChangeInvalidatesCache() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        countCache.get(QUERY, condition, this::countQuery);
+        countCache.onMemberDataChanged(new MemberDataChangedEvent(MemberEntity.class));
+        countCache.get(QUERY, condition, this::countQuery);
+
+        assertThat(countQueryCalls.get()).isEqualTo(2);
+    }
+
+    private long countQuery() {
+        countQueryCalls.incrementAndGet();
+        return 42L;
+    }
+
+    @Test
+    void differentCountQueriesDoNotShareTotals() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        long first = countCache.get("countA", condition, () -> 1L);
+        long second = countCache.get("countB", condition, () -> 2L);
+
+        assertThat(first).isEqualTo(1L);
+        assertThat(second).isEqualTo(2L);
+    }
+
+    @Test
+    void countStartedBeforeInvalidationIsNotReused() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+
+        // 커밋 전에 시작한 Count Query 가 무효화 이후에 끝나는 경우
+        CompletableFuture<Long> stale = CompletableFuture.supplyAsync(() -> countCache.get(QUERY, condition, () -> {
+            started.countDown();
+            await(committed);
+            return 1L;
+        }));
+        started.await();
+        countCache.onMemberDataChanged(new MemberDataChangedEvent(MemberEntity.class));
+        committed.countDown();
+
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+        assertThat(countCache.get(QUERY, condition, () -> 2L)).isEqualTo(2L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
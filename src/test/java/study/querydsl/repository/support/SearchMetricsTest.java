@@ -0,0 +1,89 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchMetricsTest {
+
+    SimpleMeterRegistry meterRegistry;
+    SearchMetrics searchMetrics;
+    MemberSearchCondition condition;
+
+    @BeforeEach
+    void before() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchMetrics = new SearchMetrics(meterRegistry);
+        condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(20);
+        condition.setUsername("");
+    }
+
+    @Test
+    void shapeTagListsPresentFields() {
+        assertThat(SearchMetrics.shapeOf(condition)).isEqualTo("teamName+ageGoe");
+        assertThat(SearchMetrics.shapeOf(new MemberSearchCondition())).isEqualTo("none");
+    }
+
+    @Test
+    void contentRecordsLatencyAndRows() {
+        searchMetrics.content("test.search", condition, () -> List.of(1, 2, 3));
+
+        assertThat(meterRegistry.get("querydsl.search")
+                                .tags("method", "test.search", "shape", "teamName+ageGoe", "phase", "content")
+                                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("querydsl.search.rows")
+                                .tags("method", "test.search")
+                                .summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void pageRecordsSkippedAndExecutedCountQuery() {
+        // 첫 페이지에서 content 가 페이지 크기보다 작으면 Count Query 생략
+        Page<Integer> firstPage = searchMetrics.page("test.page", condition, PageRequest.of(0, 10),
+                List.of(1, 2), () -> 100L);
+        Page<Integer> fullPage = searchMetrics.page("test.page", condition, PageRequest.of(0, 2),
+                List.of(1, 2), () -> 100L);
+
+        assertThat(firstPage.getTotalElements()).isEqualTo(2);
+        assertThat(fullPage.getTotalElements()).isEqualTo(100);
+        assertThat(meterRegistry.get("querydsl.search.count.requests")
+                                .tags("method", "test.page", "outcome", "skipped")
+                                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("querydsl.search.count.requests")
+                                .tags("method", "test.page", "outcome", "executed")
+                                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("querydsl.search")
+                                .tags("method", "test.page", "phase", "count")
+                                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void probeCountsOnlyUsedCountQuery() {
+        // ParallelCountExecutor 에서 미리 시작했다가 취소된 Count Query 는 skipped, 시간도 기록하지 않는다.
+        SearchMetrics.CountProbe skipped = searchMetrics.countProbe("test.probe", condition);
+        skipped.finish();
+        SearchMetrics.CountProbe used = searchMetrics.countProbe("test.probe", condition);
+        used.countUsed(TimeUnit.MILLISECONDS.toNanos(5));
+        used.finish();
+
+        assertThat(meterRegistry.get("querydsl.search.count.requests")
+                                .tags("method", "test.probe", "outcome", "skipped")
+                                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("querydsl.search.count.requests")
+                                .tags("method", "test.probe", "outcome", "executed")
+                                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("querydsl.search")
+                                .tags("method", "test.probe", "phase", "count")
+                                .timer().count()).isEqualTo(1);
+    }
+}
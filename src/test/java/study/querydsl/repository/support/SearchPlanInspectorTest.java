@@ -0,0 +1,45 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.repository.support.SearchPlanInspector.SearchPlan;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class SearchPlanInspectorTest {
+
+    @Autowired
+    SearchPlanInspector searchPlanInspector;
+
+    @Test
+    void everyShapeWithConditionUsesIndex() {
+        List<SearchPlan> plans = searchPlanInspector.inspectAll();
+
+        assertThat(plans).hasSize(MemberSearchTemplates.SHAPES);
+        assertThat(plans.get(0).isFullScan()).isTrue();
+        assertThat(plans).noneMatch(SearchPlan::isRegression);
+    }
+
+    @Test
+    void usernameShapeUsesUsernameIndex() {
+        SearchPlan plan = searchPlanInspector.inspect(MemberSearchTemplates.USERNAME);
+
+        assertThat(plan.getConditions()).containsExactly("username");
+        assertThat(plan.getIndex()).isEqualTo("IDX_MEMBER_USERNAME");
+    }
+
+    @Test
+    void usernamePrefixShapeUsesUsernameIndexRange() {
+        SearchPlan plan = searchPlanInspector.inspect(MemberSearchTemplates.USERNAME_PREFIX);
+
+        assertThat(plan.getConditions()).containsExactly("usernamePrefix");
+        assertThat(plan.getIndex()).isEqualTo("IDX_MEMBER_USERNAME");
+        assertThat(plan.isFullScan()).isFalse();
+    }
+}
@@ -0,0 +1,160 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.MemberEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchResultCacheTest {
+
+    SearchResultCache resultCache;
+    AtomicInteger searchCalls;
+
+    @BeforeEach
+    void before() {
+        resultCache = new SearchResultCache(new SimpleMeterRegistry(), true, Duration.ofMinutes(1), 100);
+        searchCalls = new AtomicInteger();
+    }
+
+    @Test
+    void sameNormalizedConditionAndPageableHitCache() {
+        MemberSearchCondition blankUsername = condition("teamA");
+        blankUsername.setUsername("");
+        MemberSearchCondition noUsername = condition("teamA");
+
+        resultCache.page("page", blankUsername, PageRequest.of(0, 10), this::page);
+        resultCache.page("page", noUsername, PageRequest.of(0, 10), this::page);
+        resultCache.page("page", noUsername, PageRequest.of(1, 10), this::page);
+        resultCache.list("list", noUsername, this::list);
+
+        assertThat(searchCalls.get()).isEqualTo(3);
+        assertThat(resultCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        MemberSearchCondition condition = condition("teamA");
+        CountDownLatch loading = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<MemberTeamDto>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> resultCache.list("list", condition, () -> {
+                    await(loading);
+                    return list();
+                })));
+            }
+            Thread.sleep(100);
+            loading.countDown();
+            for (Future<List<MemberTeamDto>> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).hasSize(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(searchCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void memberDataChangeInvalidates() {
+        MemberSearchCondition condition = condition("teamA");
+        resultCache.list("list", condition, this::list);
+
+        resultCache.onMemberDataChanged(new MemberDataChangedEvent(MemberEntity.class));
+        resultCache.list("list", condition, this::list);
+
+        assertThat(searchCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void resultLoadedBeforeInvalidationIsNotReused() {
+        MemberSearchCondition condition = condition("teamA");
+        resultCache.list("list", condition, () -> {
+            // 조회 도중 변경이 커밋됨
+            resultCache.onMemberDataChanged(new MemberDataChangedEvent(MemberEntity.class));
+            return list();
+        });
+
+        resultCache.list("list", condition, this::list);
+
+        assertThat(searchCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void runningSearchDoesNotBlockOtherCallers() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<MemberTeamDto>> slow = executor.submit(() -> resultCache.list("list", condition("teamA"), () -> {
+                await(loading);
+                return list();
+            }));
+            Thread.sleep(100);
+
+            // 조회가 끝나기 전에도 다른 키 조회와 무효화는 기다리지 않는다.
+            Future<?> others = executor.submit(() -> {
+                resultCache.list("list", condition("teamB"), this::list);
+                resultCache.onMemberDataChanged(new MemberDataChangedEvent(MemberEntity.class));
+            });
+            others.get(5, TimeUnit.SECONDS);
+
+            loading.countDown();
+            assertThat(slow.get(5, TimeUnit.SECONDS)).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedSearchIsRethrownAndNotCached() {
+        MemberSearchCondition condition = condition("teamA");
+
+        assertThatThrownBy(() -> resultCache.list("list", condition, () -> {
+            throw new IllegalStateException("search failed");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("search failed");
+        resultCache.list("list", condition, this::list);
+
+        assertThat(searchCalls.get()).isEqualTo(1);
+    }
+
+    private static MemberSearchCondition condition(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+
+    private List<MemberTeamDto> list() {
+        searchCalls.incrementAndGet();
+        return List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+    }
+
+    private PageImpl<MemberTeamDto> page() {
+        return new PageImpl<>(list());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
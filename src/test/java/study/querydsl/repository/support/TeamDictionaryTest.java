@@ -0,0 +1,68 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 다른 인스턴스에서 추가된 팀을 흉내 내기 위해 이벤트 없이 JDBC 로 커밋하므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest
+class TeamDictionaryTest {
+
+    @Autowired
+    TeamDictionary teamDictionary;
+    @Autowired
+    IdBlockAllocator idBlockAllocator;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    long teamIdBefore;
+
+    @BeforeEach
+    void before() {
+        teamIdBefore = jdbcTemplate.queryForObject("select coalesce(max(team_id), 0) from team", Long.class);
+        teamDictionary.refresh();
+    }
+
+    @AfterEach
+    void after() {
+        jdbcTemplate.update("delete from team where team_id > ?", teamIdBefore);
+        teamDictionary.refresh();
+    }
+
+    @Test
+    void nameMissingFromSnapshotIsLoaded() {
+        // 사전을 먼저 읽어둔다.
+        assertThat(teamDictionary.teamNames(List.of(-1L))).isEmpty();
+
+        long teamId = insertTeam("teamAdded");
+
+        assertThat(teamDictionary.teamIds("teamAdded")).containsExactly(teamId);
+    }
+
+    @Test
+    void missingNameIsRememberedUntilRefresh() {
+        assertThat(teamDictionary.teamIds("teamLater")).isEmpty();
+
+        long teamId = insertTeam("teamLater");
+
+        // miss-ttl 동안은 "없음" 을 그대로 사용한다.
+        assertThat(teamDictionary.teamIds("teamLater")).isEmpty();
+        teamDictionary.refresh();
+        assertThat(teamDictionary.teamIds("teamLater")).containsExactly(teamId);
+    }
+
+    private long insertTeam(String name) {
+        long teamId = idBlockAllocator.reserveTeamIds(1);
+        jdbcTemplate.update("insert into team (team_id, name) values (?, ?)", teamId, name);
+        return teamId;
+    }
+}
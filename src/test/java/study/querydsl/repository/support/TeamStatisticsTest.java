@@ -0,0 +1,138 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.MemberEntity;
+import study.querydsl.entity.TeamEntity;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 통계는 커밋 이후 이벤트로 갱신되므로 테스트 트랜잭션 없이 커밋된 데이터로 확인하고 직접 정리한다.
+ */
+@SpringBootTest(properties = "member.team-stats.confirm-delay=0s")
+class TeamStatisticsTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamStatistics teamStatistics;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManagerFactory emf;
+
+    TeamEntity statsA;
+    TeamEntity statsB;
+    List<MemberEntity> members = new ArrayList<>();
+
+    @BeforeEach
+    void before() {
+        teamStatistics.reconcile();
+        statsA = teamRepository.save(new TeamEntity("statsTeamA"));
+        statsB = teamRepository.save(new TeamEntity("statsTeamB"));
+        members.add(memberRepository.save(new MemberEntity("stats1", 10, statsA)));
+        members.add(memberRepository.save(new MemberEntity("stats2", 20, statsA)));
+        members.add(memberRepository.save(new MemberEntity("stats3", 40, statsA)));
+        members.add(memberRepository.save(new MemberEntity("stats4", 30, statsB)));
+    }
+
+    @AfterEach
+    void after() {
+        for (MemberEntity member : members) {
+            memberRepository.deleteById(member.getId());
+        }
+        teamRepository.delete(statsA);
+        teamRepository.delete(statsB);
+    }
+
+    @Test
+    void insertsAreAppliedIncrementally() {
+        TeamStatsDto a = stats("statsTeamA").orElseThrow();
+        assertThat(a.getCount()).isEqualTo(3);
+        assertThat(a.getSum()).isEqualTo(70);
+        assertThat(a.getAvg()).isEqualTo(70 / 3.0);
+        assertThat(a.getMax()).isEqualTo(40);
+        assertThat(a.getMin()).isEqualTo(10);
+
+        TeamStatsDto b = stats("statsTeamB").orElseThrow();
+        assertThat(b.getCount()).isEqualTo(1);
+        assertThat(b.getMax()).isEqualTo(30);
+    }
+
+    @Test
+    void changeTeamAndDeleteKeepMaxAndMinExact() {
+        // 최댓값(40)을 가진 회원이 다른 팀으로 이동
+        transactionTemplate.executeWithoutResult(status -> {
+            MemberEntity member = em.find(MemberEntity.class, members.get(2).getId());
+            member.changeTeam(em.getReference(TeamEntity.class, statsB.getId()));
+        });
+        // 최솟값(10)을 가진 회원 삭제
+        memberRepository.deleteById(members.remove(0).getId());
+
+        TeamStatsDto a = stats("statsTeamA").orElseThrow();
+        assertThat(a.getCount()).isEqualTo(1);
+        assertThat(a.getMax()).isEqualTo(20);
+        assertThat(a.getMin()).isEqualTo(20);
+
+        TeamStatsDto b = stats("statsTeamB").orElseThrow();
+        assertThat(b.getCount()).isEqualTo(2);
+        assertThat(b.getSum()).isEqualTo(70);
+        assertThat(b.getMax()).isEqualTo(40);
+        assertThat(b.getMin()).isEqualTo(30);
+
+        // 증분 결과가 전체 집계와 같으면 drift 없음
+        assertThat(teamStatistics.reconcile()).isZero();
+    }
+
+    @Test
+    void emptyTeamDisappearsFromStats() {
+        memberRepository.deleteById(members.remove(3).getId());
+
+        assertThat(stats("statsTeamB")).isEmpty();
+        assertThat(teamStatistics.reconcile()).isZero();
+    }
+
+    @Test
+    void lateCommitEventAfterReconcileIsConfirmed() {
+        teamStatistics.reconcile();
+        // 집계 쿼리 전에 커밋된 insert 의 이벤트가 교체 후에 늦게 반영된 상황
+        MemberEntity committed = members.get(0);
+        EntityPersister persister = emf.unwrap(SessionFactoryImplementor.class)
+                                       .getMetamodel().entityPersister(MemberEntity.class);
+        teamStatistics.onPostInsert(new PostInsertEvent(committed, committed.getId(),
+                persister.getPropertyValues(committed), persister, null));
+
+        teamStatistics.reconcileIfNeeded();
+
+        TeamStatsDto a = stats("statsTeamA").orElseThrow();
+        assertThat(a.getCount()).isEqualTo(3);
+        assertThat(a.getSum()).isEqualTo(70);
+    }
+
+    private Optional<TeamStatsDto> stats(String teamName) {
+        return teamStatistics.stats().stream()
+                             .filter(stats -> stats.getTeamName().equals(teamName))
+                             .findFirst();
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernamePrefixTest {
+
+    @Test
+    void blankPrefixIsNoCondition() {
+        assertThat(UsernamePrefix.startsWith(null)).isNull();
+        assertThat(UsernamePrefix.startsWith("")).isNull();
+        assertThat(UsernamePrefix.startsWith(" ")).isNull();
+    }
+
+    @Test
+    void upperBoundIncrementsLastChar() {
+        assertThat(UsernamePrefix.upperBound("abc")).isEqualTo("abd");
+        assertThat(UsernamePrefix.upperBound("member9")).isEqualTo("member:");
+    }
+
+    @Test
+    void upperBoundSkipsMaxChars() {
+        assertThat(UsernamePrefix.upperBound("ab￿￿")).isEqualTo("ac");
+        assertThat(UsernamePrefix.upperBound("￿")).isEqualTo("￿￿");
+    }
+
+    @Test
+    void everyStringWithPrefixIsInRange() {
+        String prefix = "kim";
+        String upper = UsernamePrefix.upperBound(prefix);
+
+        for (String username : new String[]{"kim", "kim0", "kimz", "kim￿￿"}) {
+            assertThat(username.compareTo(prefix)).isGreaterThanOrEqualTo(0);
+            assertThat(username.compareTo(upper)).isLessThan(0);
+        }
+        assertThat("kin".compareTo(upper)).isGreaterThanOrEqualTo(0);
+        assertThat("ki".compareTo(prefix)).isLessThan(0);
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 테스트에서 Hibernate 가 실행하는 SQL 을 확인하기 위한 StatementInspector
+ * - test/resources/application.yml 의 hibernate.session_factory.statement_inspector 로 등록
+ * - 테스트 스레드 별로 SQL 을 수집한다.
+ */
+public class SqlCaptor implements StatementInspector {
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        STATEMENTS.get().clear();
+    }
+
+    public static List<String> statements() {
+        return new ArrayList<>(STATEMENTS.get());
+    }
+}